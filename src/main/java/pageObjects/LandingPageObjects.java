@@ -4,7 +4,9 @@ import org.openqa.selenium.remote.RemoteWebDriver;
 import utilities.Navigate;
 import utilities.Page;
 import utilities.PageNavigate;
+import utilities.PageUrl;
 
+@PageUrl("https://ultimateqa.com/fake-landing-page")
 public class LandingPageObjects extends Page
 {
     protected LandingPageObjects(RemoteWebDriver driver)
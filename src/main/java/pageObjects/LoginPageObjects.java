@@ -1,14 +1,35 @@
 package pageObjects;
 
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
 import java.util.Random;
 import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
 import org.openqa.selenium.remote.RemoteWebDriver;
+import utilities.FormFill;
+import utilities.FrameContext;
 import utilities.Navigate;
 import utilities.Page;
+import utilities.PageLoadDetector;
 import utilities.PageNavigate;
+import utilities.PageUrl;
 
+@PageUrl("https://courses.ultimateqa.com/users/sign_in")
 public class LoginPageObjects extends Page
 {
+    private static final Map<String, By> SIGN_UP_FORM = ImmutableMap.<String, By>builder()
+        .put("firstName", By.cssSelector("#user_first_name"))
+        .put("lastName", By.cssSelector("#user_last_name"))
+        .put("email", By.cssSelector("#user_email"))
+        .put("password", By.cssSelector("#user_password"))
+        .put("terms", By.cssSelector("#user_terms"))
+        .put("signUp", By.cssSelector("#btn-signup"))
+        .build();
+    private static final By CREATE_ACCOUNT_LINK = By.cssSelector("#content-push > div > div > div.user-sign-up__bottom > div > div > a");
+
+    //found on first use, after createAccountLink has shown the form
+    private Map<String, WebElement> signUpForm = null;
+
     protected LoginPageObjects(RemoteWebDriver driver)
     {
         super(driver);
@@ -27,42 +48,80 @@ public class LoginPageObjects extends Page
         Random randomGenerator = new Random();
         String emailId = randomGenerator + "@gmail.com";
 
-        driver.findElement(By.cssSelector("#user_email")).sendKeys(emailId);
+        signUpField("email").sendKeys(emailId);
     }
 
     public void enterPassword()
     {
         String passId = "a" + randomGenerator;
 
-        driver.findElement(By.cssSelector("#user_password")).sendKeys(passId);
+        signUpField("password").sendKeys(passId);
     }
 
     public void enterFirstName()
     {
         String fNameId = "Tester" + randomGenerator;
 
-        driver.findElement(By.cssSelector("#user_first_name")).sendKeys(fNameId);
+        signUpField("firstName").sendKeys(fNameId);
     }
 
     public void enterLastName()
     {
         String lNameId = "Z" + randomGenerator;
-        driver.findElement(By.cssSelector("#user_last_name")).sendKeys(lNameId);
+        signUpField("lastName").sendKeys(lNameId);
+    }
+
+    /**
+     * Enter the same values as enterFirstName, enterLastName, enterEmail, enterPassword, and acceptUserAgreement,
+     * in one round trip
+     */
+    public void fillSignUpForm()
+    {
+        element().fill(new FormFill()
+            .set(SIGN_UP_FORM.get("firstName"), "Tester" + randomGenerator)
+            .set(SIGN_UP_FORM.get("lastName"), "Z" + randomGenerator)
+            .set(SIGN_UP_FORM.get("email"), new Random() + "@gmail.com")
+            .set(SIGN_UP_FORM.get("password"), "a" + randomGenerator)
+            .setChecked(SIGN_UP_FORM.get("terms"), true));
     }
 
     public void createAccountLink()
     {
-        driver.findElement(By.cssSelector("#content-push > div > div > div.user-sign-up__bottom > div > div > a")).click();
+        element().click(element().found(CREATE_ACCOUNT_LINK));
     }
 
     public void acceptUserAgreement()
     {
-        driver.findElement(By.cssSelector("#user_terms")).click();
+        signUpField("terms").click();
     }
 
     public void signUpBtn()
     {
-        driver.findElement(By.cssSelector("#btn-signup")).click();
+        signUpField("signUp").click();
+    }
+
+    /**
+     * Submit the sign up form, and wait for the page it leads to, so the browser holds whatever state signing up left
+     */
+    public void submitSignUp()
+    {
+        WebElement signUp = signUpField("signUp");
+        element().click(signUp);
+        PageLoadDetector.waitUntilGone(signUp, driver);
+        PageLoadDetector.waitForDocumentReady(driver);
+        FrameContext.of(driver).navigatedTopLevel();
+    }
+
+    /**
+     * The first field used finds the whole sign up form in one round trip; the rest are read from that result
+     */
+    private WebElement signUpField(String name)
+    {
+        if (signUpForm == null)
+        {
+            signUpForm = element().foundAll(SIGN_UP_FORM);
+        }
+        return signUpForm.get(name);
     }
 
 }
@@ -4,7 +4,9 @@ import org.openqa.selenium.remote.RemoteWebDriver;
 import utilities.Navigate;
 import utilities.Page;
 import utilities.PageNavigate;
+import utilities.PageUrl;
 
+@PageUrl("https://ultimateqa.com/automation/fake-pricing-page")
 public class PricingPageObjects extends Page
 {
     protected PricingPageObjects(RemoteWebDriver driver)
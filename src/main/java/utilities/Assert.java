@@ -7,6 +7,10 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import org.openqa.selenium.By;
 import org.openqa.selenium.SearchContext;
 import org.openqa.selenium.WebElement;
@@ -19,6 +23,12 @@ import org.openqa.selenium.support.ui.WebDriverWait;
  */
 public class Assert extends PageUtility
 {
+    private static final String PAGE_SOURCE_CONTAINS_ALL_SCRIPT = "var source = document.documentElement.outerHTML;"
+        + "return {"
+        + "  missing: arguments[0].filter(function (text) { return source.indexOf(text) === -1; }),"
+        + "  unexpected: arguments[1].filter(function (text) { return source.indexOf(text) !== -1; })"
+        + "};";
+
     public Assert(Page page)
     {
         super(page);
@@ -36,6 +46,18 @@ public class Assert extends PageUtility
         fullPageAssertDoesNotContainText(text, driver);
     }
 
+    public void fullPageAssertTexts(Collection<String> present, Collection<String> absent)
+    {
+        assertNotClosed();
+        fullPageAssertTexts(present, absent, driver);
+    }
+
+    public void performanceWithin(PerformanceBudget budget)
+    {
+        assertNotClosed();
+        performanceWithin(budget, driver);
+    }
+
     public void waitForClassCSS(String css)
     {
         assertNotClosed();
@@ -50,23 +72,65 @@ public class Assert extends PageUtility
 
     public static void fullPageAssertText(String text, RemoteWebDriver driver)
     {
-        LogManager.trace(">>> Assert \"" + text + "\" is present");
-        assertThat(driver.getPageSource(), containsString(text));
+        LogManager.trace(">>> Assert \"{}\" is present", text);
+        assertTrue("Page source must contain \"" + text + "\"", pageSourceContains(text, driver));
     }
 
     public static void waitUntilFullPageHasText(String text, RemoteWebDriver driver)
     {
-        Wait.getWaiter(driver).ignoring(AssertionError.class).until(d ->
-        {
-            fullPageAssertText(text, driver);
-            return true;
-        });
+        Wait.getWaiter(driver).withMessage("for page source to contain \"" + text + "\"").until(d -> pageSourceContains(text, driver));
     }
 
     public static void fullPageAssertDoesNotContainText(String text, RemoteWebDriver driver)
     {
         LogManager.info(">>> Assert \"" + text + "\" is not present");
-        assertFalse("Page source must not contain \"" + text + "\"", driver.getPageSource().contains(text));
+        assertFalse("Page source must not contain \"" + text + "\"", pageSourceContains(text, driver));
+    }
+
+    /**
+     * Assert that the page source contains every one of present, and none of absent, with a single script call.
+     * Reports all missing and unexpected texts together.
+     */
+    public static void fullPageAssertTexts(Collection<String> present, Collection<String> absent, RemoteWebDriver driver)
+    {
+        LogManager.info(">>> Assert " + present + " are present and " + absent + " are not present");
+        @SuppressWarnings("unchecked")
+        Map<String, List<String>> result = (Map<String, List<String>>) driver.executeScript(PAGE_SOURCE_CONTAINS_ALL_SCRIPT, new ArrayList<>(present), new ArrayList<>(absent));
+        List<String> missing = result.get("missing");
+        List<String> unexpected = result.get("unexpected");
+        assertTrue("Page source must contain " + missing + " and must not contain " + unexpected, missing.isEmpty() && unexpected.isEmpty());
+    }
+
+    /**
+     * Search the page source in the browser, so the page source isn't sent over the wire
+     * (getPageSource is the same as the outerHTML of the document element).
+     */
+    public static boolean pageSourceContains(String text, RemoteWebDriver driver)
+    {
+        return (Boolean) driver.executeScript("return document.documentElement.outerHTML.indexOf(arguments[0]) !== -1;", text);
+    }
+
+    /**
+     * @return the index of each occurrence of text in the page source, as in String.indexOf
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Long> pageSourcePositionsOf(String text, RemoteWebDriver driver)
+    {
+        return (List<Long>) driver.executeScript("var source = document.documentElement.outerHTML, text = arguments[0], positions = [];"
+            + "if (text.length === 0) { return positions; }"
+            + "for (var i = source.indexOf(text); i !== -1; i = source.indexOf(text, i + 1)) { positions.push(i); }"
+            + "return positions;", text);
+    }
+
+    /**
+     * Assert that the current page stayed within budget, using the Navigation, Paint, Resource, and Long Task timings the browser recorded.
+     * Reports every way the page exceeded the budget, with the resources or tasks responsible.
+     */
+    public static void performanceWithin(PerformanceBudget budget, RemoteWebDriver driver)
+    {
+        LogManager.info(">>> Assert page performance is within budget: " + budget);
+        List<String> violations = budget.violations(BrowserTimings.performance(driver));
+        assertTrue("Page " + driver.getCurrentUrl() + " exceeded its performance budget:\n" + String.join("\n", violations), violations.isEmpty());
     }
 
     public static void waitForClassCSS(String css, RemoteWebDriver driver)
@@ -93,14 +157,14 @@ public class Assert extends PageUtility
         {
             throw new RuntimeException(e);
         }
-        LogManager.debug("URL is: " + currentURL);
+        LogManager.debug("URL is: {}", currentURL);
         LogManager.info(">>> Assert that URL contains \"" + stringToVerify + "\"");
         assertThat(currentURL, containsString(stringToVerify));
     }
 
     public static void assertTextBoxContains(String text, WebElement element)
     {
-        LogManager.trace("Checking if String " + text + " is present");
+        LogManager.trace("Checking if String {} is present", text);
         assertEquals(text, element.getAttribute("value"));
     }
 }
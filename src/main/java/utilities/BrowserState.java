@@ -0,0 +1,112 @@
+package utilities;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * A snapshot of the cookies, localStorage, and sessionStorage of the site the browser is on, taken after some expensive flow
+ * (like signing up or logging in), that can be restored into another session instead of repeating the flow.
+ * Only the current site's state is captured, since WebDriver only exposes the current domain's cookies.
+ * Immutable; see {@link BrowserStateStore} to keep snapshots between tests.
+ */
+public class BrowserState
+{
+    private static final String CAPTURE_SCRIPT = "function copy(storage) {"
+        + "  var copied = {};"
+        + "  for (var i = 0; i < storage.length; i++) { copied[storage.key(i)] = storage.getItem(storage.key(i)); }"
+        + "  return copied;"
+        + "}"
+        + "return {origin: location.origin, local: copy(localStorage), session: copy(sessionStorage)};";
+
+    private static final String RESTORE_SCRIPT = "function fill(storage, items) {"
+        + "  storage.clear();"
+        + "  Object.keys(items).forEach(function (key) { storage.setItem(key, items[key]); });"
+        + "}"
+        + "fill(localStorage, arguments[0]);"
+        + "fill(sessionStorage, arguments[1]);";
+
+    //any same-origin URL lets us set the origin's cookies and storage; this one is small, and doesn't run the site's scripts
+    private static final String LIGHTWEIGHT_PATH = "/favicon.ico";
+
+    private final String origin;
+    private final Set<Cookie> cookies;
+    private final Map<String, String> localStorage;
+    private final Map<String, String> sessionStorage;
+    private final Instant captured;
+
+    private BrowserState(String origin, Set<Cookie> cookies, Map<String, String> localStorage, Map<String, String> sessionStorage, Instant captured)
+    {
+        this.origin = origin;
+        this.cookies = Collections.unmodifiableSet(new LinkedHashSet<>(cookies));
+        this.localStorage = Collections.unmodifiableMap(new HashMap<>(localStorage));
+        this.sessionStorage = Collections.unmodifiableMap(new HashMap<>(sessionStorage));
+        this.captured = captured;
+    }
+
+    /**
+     * Snapshot the state of the site the browser is currently on
+     */
+    @SuppressWarnings("unchecked")
+    public static BrowserState capture(RemoteWebDriver driver)
+    {
+        Map<String, Object> storage = (Map<String, Object>) driver.executeScript(CAPTURE_SCRIPT);
+        BrowserState state = new BrowserState((String) storage.get("origin"), driver.manage().getCookies(),
+            (Map<String, String>) storage.get("local"), (Map<String, String>) storage.get("session"), Instant.now());
+        LogManager.debug("Captured browser state: {}", state);
+        return state;
+    }
+
+    /**
+     * Replace the site's state in this browser with the snapshot, leaving the browser on a blank page of the site.
+     * Navigate to the page you want afterwards.
+     */
+    public void restore(RemoteWebDriver driver)
+    {
+        LogManager.debug("Restoring browser state: {}", this);
+        driver.get(origin + LIGHTWEIGHT_PATH);
+        FrameContext.of(driver).navigatedTopLevel();
+        driver.manage().deleteAllCookies();
+        cookies.forEach(driver.manage()::addCookie);
+        driver.executeScript(RESTORE_SCRIPT, localStorage, sessionStorage);
+    }
+
+    /**
+     * @return true if the snapshot is older than timeToLive, or any of its cookies have expired
+     * (an expired session cookie would restore a logged-out user)
+     */
+    public boolean isStale(Duration timeToLive)
+    {
+        Instant now = Instant.now();
+        if (captured.plus(timeToLive).isBefore(now))
+        {
+            return true;
+        }
+        Date nowDate = Date.from(now);
+        return cookies.stream().anyMatch(cookie -> cookie.getExpiry() != null && cookie.getExpiry().before(nowDate));
+    }
+
+    public String getOrigin()
+    {
+        return origin;
+    }
+
+    public Instant getCaptured()
+    {
+        return captured;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s: %d cookies, %d localStorage and %d sessionStorage items, captured %s",
+            origin, cookies.size(), localStorage.size(), sessionStorage.size(), captured);
+    }
+}
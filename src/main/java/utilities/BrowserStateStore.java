@@ -0,0 +1,73 @@
+package utilities;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Keeps {@link BrowserState} snapshots in memory, by key and version, so a flow only has to run once per JVM.
+ * Bump the version whenever the flow changes what state it produces; snapshots of any other version are ignored and replaced.
+ * Snapshots are dropped once they are stale (see {@link BrowserState#isStale}).
+ * Thread-safe, but if parallel tests miss the same key at once, each of them runs the flow.
+ */
+public class BrowserStateStore
+{
+    private final Map<String, Versioned> snapshots = new ConcurrentHashMap<>();
+    private final Duration timeToLive;
+
+    public BrowserStateStore(Duration timeToLive)
+    {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Restore the snapshot for key, unless there is no current one
+     *
+     * @return true if the state was restored, false if the flow needs to be run (and then {@link #capture}d)
+     */
+    public boolean restore(String key, int version, RemoteWebDriver driver)
+    {
+        Versioned snapshot = snapshots.get(key);
+        if (snapshot == null)
+        {
+            return false;
+        }
+        if (snapshot.version != version || snapshot.state.isStale(timeToLive))
+        {
+            LogManager.info("Discarding stale browser state snapshot " + key + " (version " + snapshot.version + ")");
+            snapshots.remove(key, snapshot);
+            return false;
+        }
+        LogManager.info(">>> Restoring browser state snapshot " + key);
+        snapshot.state.restore(driver);
+        return true;
+    }
+
+    /**
+     * Snapshot the browser's current state as the given version of key
+     */
+    public BrowserState capture(String key, int version, RemoteWebDriver driver)
+    {
+        BrowserState state = BrowserState.capture(driver);
+        snapshots.put(key, new Versioned(version, state));
+        return state;
+    }
+
+    public void invalidate(String key)
+    {
+        snapshots.remove(key);
+    }
+
+    private static class Versioned
+    {
+        private final int version;
+        private final BrowserState state;
+
+        Versioned(int version, BrowserState state)
+        {
+            this.version = version;
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package utilities;
+
+import java.util.Collections;
+import java.util.Map;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Reads the browser's Navigation, Paint, Resource, and Long Task Timing entries for the current document.
+ * Times are in milliseconds since the document's time origin (when its navigation started).
+ */
+final class BrowserTimings
+{
+    private static final String NAVIGATION_SCRIPT = "var navigation = performance.getEntriesByType('navigation')[0] || {}, paint = {};"
+        + "performance.getEntriesByType('paint').forEach(function (entry) { paint[entry.name] = entry.startTime; });"
+        + "return {"
+        + "  url: location.href,"
+        + "  timeOrigin: performance.timeOrigin || performance.timing.navigationStart,"
+        + "  responseEnd: navigation.responseEnd || null,"
+        + "  domContentLoaded: navigation.domContentLoadedEventEnd || null,"
+        + "  loadEvent: navigation.loadEventEnd || null,"
+        + "  firstPaint: paint['first-paint'] || null,"
+        + "  firstContentfulPaint: paint['first-contentful-paint'] || null"
+        + "};";
+
+    private static final String PERFORMANCE_SCRIPT = "var navigation = performance.getEntriesByType('navigation')[0] || {}, paint = {};"
+        + "performance.getEntriesByType('paint').forEach(function (entry) { paint[entry.name] = entry.startTime; });"
+        //largest-contentful-paint and longtask entries are only available to observers; buffered observers get past entries immediately
+        + "function observed(type) {"
+        + "  var supported = window.PerformanceObserver && PerformanceObserver.supportedEntryTypes || [];"
+        + "  if (supported.indexOf(type) === -1) { return null; }"
+        + "  var observer = new PerformanceObserver(function () {});"
+        + "  observer.observe({type: type, buffered: true});"
+        + "  var entries = observer.takeRecords();"
+        + "  observer.disconnect();"
+        + "  return entries;"
+        + "}"
+        + "var largestPaints = observed('largest-contentful-paint'), longTasks = observed('longtask');"
+        + "return {"
+        + "  loadEvent: navigation.loadEventEnd || null,"
+        + "  firstPaint: paint['first-paint'] || null,"
+        + "  firstContentfulPaint: paint['first-contentful-paint'] || null,"
+        //no entries yet means nothing has been painted (or the tab is in the background), not that it painted instantly
+        + "  largestContentfulPaint: largestPaints && largestPaints.length ? largestPaints[largestPaints.length - 1].startTime : null,"
+        + "  resources: performance.getEntriesByType('resource').map(function (entry) {"
+        + "    return {name: entry.name, type: entry.initiatorType, transferSize: entry.transferSize || 0, start: entry.startTime, end: entry.responseEnd};"
+        + "  }),"
+        + "  longTasks: longTasks === null ? null : longTasks.map(function (entry) {"
+        + "    var attribution = entry.attribution && entry.attribution[0];"
+        + "    return {start: entry.startTime, duration: entry.duration, "
+        + "      source: attribution && (attribution.containerSrc || attribution.containerName || attribution.name) || entry.name};"
+        + "  })"
+        + "};";
+
+    private BrowserTimings()
+    {
+    }
+
+    /**
+     * @return url, timeOrigin, responseEnd, domContentLoaded, loadEvent, firstPaint, firstContentfulPaint
+     * (each null if the browser doesn't report it), or an empty map if the timings can't be read
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> navigation(RemoteWebDriver driver)
+    {
+        try
+        {
+            return (Map<String, Object>) driver.executeScript(NAVIGATION_SCRIPT);
+        }
+        catch (WebDriverException ex)
+        {
+            LogManager.debug("Could not read navigation timings: {}", Scripts.firstLine(ex));
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * @return loadEvent, firstPaint, firstContentfulPaint, largestContentfulPaint (null if they haven't happened yet, or the browser doesn't report them),
+     * resources (name, type, transferSize, start, end for each resource the page loaded), and
+     * longTasks (start, duration, source for each task over 50 ms, or null if the browser doesn't report them)
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> performance(RemoteWebDriver driver)
+    {
+        return (Map<String, Object>) driver.executeScript(PERFORMANCE_SCRIPT);
+    }
+
+    /**
+     * @return the timing in whole milliseconds, or null if it's missing
+     */
+    static Long millis(Map<String, Object> timings, String name)
+    {
+        Object value = timings.get(name);
+        return value instanceof Number ? Math.round(((Number) value).doubleValue()) : null;
+    }
+}
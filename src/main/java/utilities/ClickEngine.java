@@ -0,0 +1,282 @@
+package utilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.InvalidElementStateException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Clicks elements optimistically: tries the click first, and only waits or works around a problem once a click fails.
+ * Most clicks succeed on the first try, and then cost one round trip instead of a readiness check plus a click.
+ * Failures are sorted into {@link FailureKind}s by {@link FailureClassifier}s, which can be registered per browser;
+ * an unclassified failure is rethrown.
+ */
+public class ClickEngine
+{
+    private static final String ALL_BROWSERS = "*";
+    //too bad they don't have a more specific NotClickableException
+    //this code is fragile because it depends on the message, but it's easy to fix
+    private static final Pattern OBSCURING_ELEMENT = Pattern.compile("Other element would receive the click: (<[^>]*>)|because another element (<[^>]*>) obscures it");
+
+    private static final Map<String, List<FailureClassifier>> classifiers = new ConcurrentHashMap<>();
+    private static final Map<Path, LongAdder> pathCounts = new EnumMap<>(Path.class);
+
+    static
+    {
+        for (Path path : Path.values())
+        {
+            pathCounts.put(path, new LongAdder());
+        }
+        registerClassifier(ALL_BROWSERS, (ex, firstLine) ->
+        {
+            Matcher obscuringElement = OBSCURING_ELEMENT.matcher(firstLine);
+            if ((ex instanceof ElementClickInterceptedException || firstLine.contains("is not clickable")) && obscuringElement.find())
+            {
+                return new ClickFailure(FailureKind.OBSCURED, obscuringElement.group(1) != null ? obscuringElement.group(1) : obscuringElement.group(2));
+            }
+            return null;
+        });
+        registerClassifier(ALL_BROWSERS, (ex, firstLine) ->
+        {
+            if (ex instanceof ElementNotInteractableException || ex instanceof InvalidElementStateException || firstLine.contains("is not clickable"))
+            {
+                return new ClickFailure(FailureKind.NOT_READY, firstLine);
+            }
+            return null;
+        });
+        registerClassifier("firefox", (ex, firstLine) ->
+        {
+            if (ex instanceof ElementNotInteractableException && firstLine.contains("could not be scrolled into view"))
+            {
+                return new ClickFailure(FailureKind.SCROLL_INTO_VIEW_BUG, firstLine);
+            }
+            return null;
+        });
+    }
+
+    public enum FailureKind
+    {
+        /**
+         * The element is not yet visible, enabled, or on the page; wait until it is
+         */
+        NOT_READY,
+        /**
+         * Another element would receive the click; scroll to the top of the page (in case it's the top bar) and wait for it to move
+         */
+        OBSCURED,
+        /**
+         * https://github.com/mozilla/geckodriver/issues/1007 ; click the element's location instead
+         */
+        SCROLL_INTO_VIEW_BUG
+    }
+
+    /**
+     * Which way a click succeeded
+     */
+    public enum Path
+    {
+        FAST,
+        WAITED_FOR_READY,
+        WAITED_FOR_OBSCURING_ELEMENT,
+        ACTIONS
+    }
+
+    public static class ClickFailure
+    {
+        public final FailureKind kind;
+        public final String detail;
+
+        public ClickFailure(FailureKind kind, String detail)
+        {
+            this.kind = kind;
+            this.detail = detail;
+        }
+    }
+
+    @FunctionalInterface
+    public interface FailureClassifier
+    {
+        /**
+         * @param firstLine
+         *     The first line of the exception message (the rest is driver and system information)
+         * @return the kind of failure, or null if this classifier doesn't recognize it
+         */
+        ClickFailure classify(WebDriverException ex, String firstLine);
+    }
+
+    private ClickEngine()
+    {
+    }
+
+    /**
+     * Add a classifier for click failures in one browser (as in Capabilities.getBrowserName()).
+     * Browser specific classifiers are tried before the ones for all browsers, in the order they were registered.
+     */
+    public static void registerClassifier(String browserName, FailureClassifier classifier)
+    {
+        classifiers.computeIfAbsent(browserName, name -> new CopyOnWriteArrayList<>()).add(classifier);
+    }
+
+    public static Map<Path, Long> getPathCounts()
+    {
+        Map<Path, Long> counts = new EnumMap<>(Path.class);
+        pathCounts.forEach((path, count) -> counts.put(path, count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Each fast click skipped at least one readiness check round trip
+     */
+    public static String summary()
+    {
+        return "Clicks by path: " + getPathCounts();
+    }
+
+    public static void click(WebElement element, RemoteWebDriver driver)
+    {
+        ClickFailure failure;
+        try
+        {
+            element.click();
+            pathCounts.get(Path.FAST).increment();
+            return;
+        }
+        catch (WebDriverException ex)
+        {
+            failure = classify(ex, driver);
+        }
+        try
+        {
+            Path path = Wait.getWaiter(driver).withMessage(() -> "to click element " + LogManager.describeElement(element)).until(new SlowClick(element, driver, failure));
+            pathCounts.get(path).increment();
+        }
+        catch (TimeoutException ex)
+        {
+            //clicking is impossible; call click one last time to get the error it causes
+            element.click();
+        }
+    }
+
+    /**
+     * @throws WebDriverException
+     *     ex, if no classifier recognizes it
+     */
+    private static ClickFailure classify(WebDriverException ex, RemoteWebDriver driver)
+    {
+        String firstLine = Scripts.firstLine(ex);
+        List<FailureClassifier> applicable = new ArrayList<>(classifiers.getOrDefault(driver.getCapabilities().getBrowserName(), Collections.emptyList()));
+        applicable.addAll(classifiers.getOrDefault(ALL_BROWSERS, Collections.emptyList()));
+        for (FailureClassifier classifier : applicable)
+        {
+            ClickFailure failure = classifier.classify(ex, firstLine);
+            if (failure != null)
+            {
+                return failure;
+            }
+        }
+        //we don't know what kind of WebDriverException this is, fail
+        throw ex;
+    }
+
+    /**
+     * One attempt to click after a failure, handling the previous failure first
+     */
+    private static class SlowClick implements Function<RemoteWebDriver, Path>
+    {
+        private final WebElement element;
+        private final RemoteWebDriver driver;
+        private final CompositeCondition isClickable;
+        private ClickFailure lastFailure;
+        private Path path = Path.WAITED_FOR_READY;
+        private boolean loggedNotReady = false;
+        private boolean loggedAndScrolled = false;
+        private boolean loggedUseActions = false;
+
+        SlowClick(WebElement element, RemoteWebDriver driver, ClickFailure firstFailure)
+        {
+            this.element = element;
+            this.driver = driver;
+            this.isClickable = CompositeCondition.clickable(element);
+            this.lastFailure = firstFailure;
+        }
+
+        @Override
+        public Path apply(RemoteWebDriver driver1)
+        {
+            if (!prepare())
+            {
+                return null;
+            }
+            try
+            {
+                if (lastFailure.kind == FailureKind.SCROLL_INTO_VIEW_BUG)
+                {
+                    new Actions(driver).moveToElement(element).click().perform();
+                }
+                else
+                {
+                    element.click();
+                }
+                return path;
+            }
+            catch (WebDriverException ex)
+            {
+                lastFailure = classify(ex, driver);
+                return null;
+            }
+        }
+
+        /**
+         * @return false if the element is not ready to try clicking yet
+         */
+        private boolean prepare()
+        {
+            switch (lastFailure.kind)
+            {
+                case NOT_READY:
+                    if (!loggedNotReady)
+                    {
+                        LogManager.debug("Waiting for element to be clickable: " + lastFailure.detail);
+                        loggedNotReady = true;
+                    }
+                    return isClickable.apply(driver);
+                case OBSCURED:
+                    path = Path.WAITED_FOR_OBSCURING_ELEMENT;
+                    if (!loggedAndScrolled)
+                    {
+                        LogManager.info("Waiting for other element to get out of the way of clicking: " + lastFailure.detail);
+                        LogManager.info("> Scroll to top of page (in case the other element is the top bar)");
+                        Window.scrollToTopOfPage(driver);
+                        loggedAndScrolled = true;
+                    }
+                    return true;
+                case SCROLL_INTO_VIEW_BUG:
+                    path = Path.ACTIONS;
+                    if (!loggedUseActions)
+                    {
+                        LogManager.debug("Detected could not be scrolled into view bug ( https://github.com/mozilla/geckodriver/issues/1007 )");
+                        LogManager.debug("> Try clicking the element's location instead");
+                        loggedUseActions = true;
+                    }
+                    return true;
+                default:
+                    throw new IllegalStateException("Unknown click failure " + lastFailure.kind);
+            }
+        }
+    }
+}
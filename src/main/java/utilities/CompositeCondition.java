@@ -0,0 +1,122 @@
+package utilities;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+/**
+ * A condition made of several checks on one element, all evaluated in a single script call.
+ * ExpectedConditions.and(elementToBeClickable(element), ...) costs one WebDriver command per check per poll
+ * (isDisplayed, isEnabled, getLocation); this costs one.
+ * Checks are Javascript expressions that may use the variables element, rect (its bounding client rect), and style (its computed style).
+ */
+public class CompositeCondition implements ExpectedCondition<Boolean>
+{
+    private static final Pattern CHECK_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final WebElement element;
+    private final Map<String, String> checks = new LinkedHashMap<>();
+    private Map<String, Object> lastResults = Collections.emptyMap();
+
+    private CompositeCondition(WebElement element)
+    {
+        this.element = element;
+    }
+
+    public static CompositeCondition of(WebElement element)
+    {
+        return new CompositeCondition(element);
+    }
+
+    /**
+     * Equivalent to ExpectedConditions.and(elementToBeClickable(element), d -> Element.positionedOnPage(element))
+     */
+    public static CompositeCondition clickable(WebElement element)
+    {
+        return of(element).displayed().enabled().positionedOnPage();
+    }
+
+    /**
+     * Approximately WebElement.isDisplayed: the element takes up space and is not hidden or transparent
+     */
+    public CompositeCondition displayed()
+    {
+        return check("displayed", "element.getClientRects().length > 0 && style.visibility !== 'hidden' && parseFloat(style.opacity) !== 0");
+    }
+
+    public CompositeCondition enabled()
+    {
+        return check("enabled", "!element.disabled");
+    }
+
+    /**
+     * See {@link Element#positionedOnPage(WebElement)}
+     */
+    public CompositeCondition positionedOnPage()
+    {
+        return check("positionedOnPage", "rect.left + window.pageXOffset >= 0 && rect.top + window.pageYOffset >= 0");
+    }
+
+    public CompositeCondition inView()
+    {
+        return check("inView", "rect.top >= 0 && rect.left >= 0 && rect.bottom <= window.innerHeight && rect.right <= window.innerWidth");
+    }
+
+    /**
+     * @param name
+     *     Identifies the check in descriptions of the condition
+     * @param expression
+     *     Javascript expression that is truthy when the check passes
+     */
+    public CompositeCondition check(String name, String expression)
+    {
+        if (!CHECK_NAME.matcher(name).matches())
+        {
+            throw new IllegalArgumentException("Check name must be a Javascript identifier: " + name);
+        }
+        checks.put(name, expression);
+        return this;
+    }
+
+    @Override
+    public Boolean apply(WebDriver driver)
+    {
+        JavascriptExecutor executor = Scripts.executorFor(driver);
+        try
+        {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> results = (Map<String, Object>) executor.executeScript(script(), element);
+            lastResults = results;
+        }
+        catch (StaleElementReferenceException ex)
+        {
+            //as ExpectedConditions.elementToBeClickable
+            return false;
+        }
+        return lastResults.values().stream().allMatch(Boolean.TRUE::equals);
+    }
+
+    private String script()
+    {
+        return "var element = arguments[0];"
+            + "var rect = element.getBoundingClientRect();"
+            + "var style = window.getComputedStyle(element);"
+            + "return {"
+            + checks.entrySet().stream().map(check -> check.getKey() + ": !!(" + check.getValue() + ")").collect(Collectors.joining(", "))
+            + "};";
+    }
+
+    @Override
+    public String toString()
+    {
+        String failing = lastResults.entrySet().stream().filter(result -> !Boolean.TRUE.equals(result.getValue())).map(Map.Entry::getKey).collect(Collectors.joining(", "));
+        return "element to be " + String.join(", ", checks.keySet()) + (failing.isEmpty() ? "" : " (not " + failing + ")");
+    }
+}
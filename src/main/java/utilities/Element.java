@@ -1,74 +1,105 @@
 package utilities;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.openqa.selenium.By;
-import org.openqa.selenium.ElementClickInterceptedException;
-import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.Point;
 import org.openqa.selenium.SearchContext;
 import org.openqa.selenium.TimeoutException;
-import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.remote.RemoteWebDriver;
-import org.openqa.selenium.support.ui.ExpectedCondition;
-import org.openqa.selenium.support.ui.ExpectedConditions;
 
 public class Element extends PageUtility
 {
+    private static final String FIND_ALL_SCRIPT = Scripts.FIND_FUNCTION
+        + "var names = arguments[0], kinds = arguments[1], values = arguments[2], root = arguments[3] || document, found = {};"
+        + "for (var i = 0; i < names.length; i++) { found[names[i]] = find(root, kinds[i], values[i]); }"
+        + "return found;";
+
     public Element(Page page)
     {
         super(page);
     }
 
+    /**
+     * Elements found by this page's foundBy methods are cached until the page is closed (see {@link ElementCache})
+     */
+    public ElementCache getCache()
+    {
+        return elementCache();
+    }
+
     public WebElement foundByCSS(String css)
     {
-        assertNotClosed();
-        return foundByCSS(css, driver);
+        return found(By.cssSelector(css));
     }
 
     public WebElement foundByID(String id)
     {
-        assertNotClosed();
-        return foundByID(id, driver);
+        return found(By.id(id));
     }
 
     public WebElement foundByLinkText(String linktext)
     {
-        assertNotClosed();
-        return foundByLinkText(linktext, driver);
+        return found(By.linkText(linktext));
     }
 
     public WebElement foundByXPath(String xpath)
     {
-        assertNotClosed();
-        return foundByXPath(xpath, driver);
+        return found(By.xpath(xpath));
     }
 
     public WebElement foundByClassName(String classname)
     {
-        assertNotClosed();
-        return foundByClassName(classname, driver);
+        return found(By.className(classname));
     }
 
     public WebElement foundByPartialLinkText(String linkText)
     {
-        assertNotClosed();
-        return foundByPartialLinkText(linkText, driver);
+        return found(By.partialLinkText(linkText));
     }
 
     public WebElement foundByPartialLinkText(String linkText, SearchContext context)
     {
-        return Wait.waiter(By.partialLinkText(linkText), context);
+        assertNotClosed();
+        return elementCache().get(By.partialLinkText(linkText), context);
     }
 
     public WebElement foundByName(String name)
+    {
+        return found(By.name(name));
+    }
+
+    /**
+     * Wait for an element to be present on this page, or get it from the cache
+     */
+    public WebElement found(By by)
+    {
+        assertNotClosed();
+        return elementCache().get(by, driver);
+    }
+
+    /**
+     * As {@link #foundAll(Map, SearchContext)}, but elements are cached on this page
+     */
+    public Map<String, WebElement> foundAll(Map<String, By> locators)
+    {
+        assertNotClosed();
+        return elementCache().getAll(locators, driver);
+    }
+
+    public void fill(FormFill form)
     {
         assertNotClosed();
-        return foundByName(name, driver);
+        fill(form, driver);
     }
 
     public void click(WebElement element)
@@ -140,90 +171,83 @@ public class Element extends PageUtility
     }
 
     /**
-     * Click an element, but only once it is really clickable. Helpful to eliminate waits.
-     * Really tries as hard as it can to click the element, handling a number of common errors.
-     * We should refactor this method to split it into smaller methods.
+     * Wait for several elements to be present, finding all of them with one script call per poll
+     * (locators that can't be evaluated in the browser, such as link text, are found individually).
+     *
+     * @param locators
+     *     The locators to find, by name
+     * @return the elements, by the same names
+     * @throws NoSuchElementException
+     *     listing every locator that was still missing when the wait timed out
      */
-    public static void click(WebElement element, RemoteWebDriver driver)
+    public static Map<String, WebElement> foundAll(Map<String, By> locators, SearchContext context)
     {
-        Objects.requireNonNull(element, "Element must not be null");
-        ExpectedCondition<Boolean> isClickable = ExpectedConditions.and(ExpectedConditions.elementToBeClickable(element), d -> positionedOnPage(element));
-        if (!isClickable.apply(driver))
+        Map<String, Scripts.Locator> scriptable = new LinkedHashMap<>();
+        Map<String, By> individual = new LinkedHashMap<>();
+        JavascriptExecutor executor = Scripts.executorFor(context);
+        locators.forEach((name, by) ->
         {
-            LogManager.debug("Waiting for element to be clickable: " + LogManager.describeElement(element));
-            Wait.getWaiter(driver).until(isClickable);
-        }
-        //elementToBeClickable only checks that it's visible, now wait for nothing to be in the way
-        //sadly there's no easier way to check than just trying to click
-        String elementDescription = LogManager.describeElement(element);
+            Scripts.Locator locator = Scripts.locator(by);
+            if (locator != null && executor != null)
+            {
+                scriptable.put(name, locator);
+            }
+            else
+            {
+                individual.put(name, by);
+            }
+        });
+        List<String> names = new ArrayList<>(scriptable.keySet());
+        List<String> kinds = scriptable.values().stream().map(locator -> locator.kind).collect(Collectors.toList());
+        List<String> values = scriptable.values().stream().map(locator -> locator.value).collect(Collectors.toList());
+        Set<String> missing = new LinkedHashSet<>(locators.keySet());
+        Map<String, WebElement> found = new LinkedHashMap<>();
         try
         {
-            Wait.getWaiter(driver).withMessage("to click element " + elementDescription).until(new Function<RemoteWebDriver, Boolean>()
+            return Wait.getWaiter(context).withMessage(() -> "to find elements " + missing).until(context1 ->
             {
-                boolean loggedAndScrolled = false;
-                boolean loggedUseActions = false;
-
-                @Override
-                public Boolean apply(RemoteWebDriver driver1)
+                if (!names.isEmpty())
                 {
-                    try
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> elements = (Map<String, Object>) executor.executeScript(FIND_ALL_SCRIPT, names, kinds, values, Scripts.rootArgument(context1));
+                    elements.forEach((name, element) ->
                     {
-                        try
-                        {
-                            element.click();
-                        }
-                        catch (ElementNotInteractableException ex)
-                        {
-                            if (ex.getMessage().split("\n")[0].contains("could not be scrolled into view") && driver.getCapabilities().getBrowserName().equals("firefox"))
-                            {
-                                if (!loggedUseActions)
-                                {
-                                    LogManager.debug("Detected could not be scrolled into view bug ( https://github.com/mozilla/geckodriver/issues/1007 )");
-                                    LogManager.debug("> Try clicking the element's location instead");
-                                    loggedUseActions = true;
-                                }
-                                new Actions(driver).moveToElement(element).click().perform();
-                            }
-                            else
-                            {
-                                throw ex;
-                            }
-                        }
-                        return true;
-                    }
-                    catch (WebDriverException ex)
-                    {
-                        //too bad they don't have a more specific NotClickableException
-                        //this code is fragile because it depends on the message, but it's easy to fix
-                        String firstLine = ex.getMessage().split("\n", 2)[0];
-                        Matcher obscuringElement = Pattern.compile("Other element would receive the click: (<[^>]*>)|because another element (<[^>]*>) obscures it").matcher(firstLine);
-                        if ((ex instanceof ElementClickInterceptedException || firstLine.contains("is not clickable")) && obscuringElement.find())
-                        {
-                            if (!loggedAndScrolled)
-                            {
-                                LogManager.info("Waiting for other element to get out of the way of clicking: " + obscuringElement.group(1));
-                                LogManager.info("> Scroll to top of page (in case the other element is the top bar)");
-                                Window.scrollToTopOfPage(driver);
-                                loggedAndScrolled = true;
-                            }
-                            return false;
-                        }
-                        else
+                        if (element instanceof WebElement)
                         {
-                            //we don't know what kind of WebDriverException this is, fail
-                            throw ex;
+                            found.put(name, (WebElement) element);
                         }
-                    }
+                    });
                 }
+                individual.forEach((name, by) -> context1.findElements(by).stream().findFirst().ifPresent(element -> found.put(name, element)));
+                missing.removeAll(found.keySet());
+                return missing.isEmpty() ? found : null;
             });
         }
         catch (TimeoutException ex)
         {
-            //clicking is impossible; call click one last time to get the error it causes
-            element.click();
+            String description = missing.stream().map(name -> name + " (" + locators.get(name) + ")").collect(Collectors.joining(", "));
+            throw new NoSuchElementException("Could not find " + missing.size() + " of " + locators.size() + " elements: " + description, ex);
         }
     }
 
+    /**
+     * Fill in a form, with one script call for all of its scripted fields (see {@link FormFill})
+     */
+    public static void fill(FormFill form, SearchContext context)
+    {
+        form.fill(context);
+    }
+
+    /**
+     * Click an element, but only once it is really clickable. Helpful to eliminate waits.
+     * Really tries as hard as it can to click the element, handling a number of common errors (see {@link ClickEngine}).
+     */
+    public static void click(WebElement element, RemoteWebDriver driver)
+    {
+        Objects.requireNonNull(element, "Element must not be null");
+        ClickEngine.click(element, driver);
+    }
+
     public static void click(By by, SearchContext context, RemoteWebDriver driver)
     {
         click(Wait.waiter(by, context), driver);
@@ -0,0 +1,242 @@
+package utilities;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsElement;
+
+/**
+ * Elements found on one Page, keyed by locator and search context, so each locator is only looked up once per page.
+ * Cached elements are proxies that cost nothing extra to use: if the real element has gone stale
+ * (the page re-rendered it), the proxy finds it again from its locator and retries, instead of checking before every use.
+ * The cache is cleared when its Page is closed, after which its elements go stale normally.
+ * Don't use cached elements to wait for staleness, since they will find themselves again.
+ */
+public class ElementCache
+{
+    private static final LongAdder totalHits = new LongAdder();
+    private static final LongAdder totalMisses = new LongAdder();
+    private static final LongAdder totalRelocations = new LongAdder();
+
+    private final Map<Key, WebElement> elements = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder relocations = new LongAdder();
+    private volatile boolean closed = false;
+
+    ElementCache()
+    {
+    }
+
+    /**
+     * @return the cached element found by by in context, or wait for it to be present and cache it
+     */
+    WebElement get(By by, SearchContext context)
+    {
+        Key key = new Key(by, context);
+        WebElement cached = elements.get(key);
+        if (cached != null)
+        {
+            hits.increment();
+            totalHits.increment();
+            return cached;
+        }
+        misses.increment();
+        totalMisses.increment();
+        return put(by, context, Wait.waiter(by, context));
+    }
+
+    /**
+     * As {@link #get}, but finds all uncached locators together with {@link Element#foundAll(Map, SearchContext)}
+     *
+     * @param locators
+     *     The locators to find, by name
+     * @return the elements, by the same names
+     */
+    Map<String, WebElement> getAll(Map<String, By> locators, SearchContext context)
+    {
+        Map<String, WebElement> found = new LinkedHashMap<>();
+        Map<String, By> uncached = new LinkedHashMap<>();
+        locators.forEach((name, by) ->
+        {
+            WebElement cached = elements.get(new Key(by, context));
+            if (cached != null)
+            {
+                hits.increment();
+                totalHits.increment();
+                found.put(name, cached);
+            }
+            else
+            {
+                uncached.put(name, by);
+            }
+        });
+        if (!uncached.isEmpty())
+        {
+            misses.add(uncached.size());
+            totalMisses.add(uncached.size());
+            Element.foundAll(uncached, context).forEach((name, element) -> found.put(name, put(uncached.get(name), context, element)));
+        }
+        return found;
+    }
+
+    /**
+     * Cache an element that was found some other way
+     */
+    WebElement put(By by, SearchContext context, WebElement element)
+    {
+        WebElement proxy = relocating(by, context, element);
+        elements.put(new Key(by, context), proxy);
+        return proxy;
+    }
+
+    void clear()
+    {
+        closed = true;
+        elements.clear();
+    }
+
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    public long getRelocations()
+    {
+        return relocations.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%d hits, %d misses, %d relocated", getHits(), getMisses(), getRelocations());
+    }
+
+    /**
+     * Totals for all pages
+     */
+    public static String summary()
+    {
+        return String.format("Element cache: %d hits, %d misses, %d relocated", totalHits.sum(), totalMisses.sum(), totalRelocations.sum());
+    }
+
+    private WebElement relocating(By by, SearchContext context, WebElement element)
+    {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> type = element.getClass(); type != null; type = type.getSuperclass())
+        {
+            for (Class<?> implemented : type.getInterfaces())
+            {
+                if (Modifier.isPublic(implemented.getModifiers()))
+                {
+                    interfaces.add(implemented);
+                }
+            }
+        }
+        interfaces.add(WebElement.class);
+        //lets executeScript and Actions unwrap the proxy
+        interfaces.add(WrapsElement.class);
+        return (WebElement) Proxy.newProxyInstance(element.getClass().getClassLoader(), interfaces.toArray(new Class<?>[0]), new Relocating(by, context, element));
+    }
+
+    private class Relocating implements InvocationHandler
+    {
+        private final By by;
+        private final SearchContext context;
+        private volatile WebElement element;
+
+        Relocating(By by, SearchContext context, WebElement element)
+        {
+            this.by = by;
+            this.context = context;
+            this.element = element;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            switch (method.getName())
+            {
+                case "getWrappedElement":
+                    return element;
+                case "equals":
+                    Object other = args[0] instanceof WrapsElement ? ((WrapsElement) args[0]).getWrappedElement() : args[0];
+                    return element.equals(other);
+                case "hashCode":
+                    return element.hashCode();
+                case "toString":
+                    return "[Cached " + by + "] -> " + element;
+            }
+            try
+            {
+                return method.invoke(element, args);
+            }
+            catch (InvocationTargetException ex)
+            {
+                if (!(ex.getCause() instanceof StaleElementReferenceException) || closed)
+                {
+                    throw ex.getCause();
+                }
+            }
+            LogManager.debug("Cached element {} went stale, finding it again", by);
+            relocations.increment();
+            totalRelocations.increment();
+            element = Wait.waiter(by, context);
+            try
+            {
+                return method.invoke(element, args);
+            }
+            catch (InvocationTargetException ex)
+            {
+                throw ex.getCause();
+            }
+        }
+    }
+
+    private static class Key
+    {
+        private final By by;
+        private final SearchContext context;
+
+        Key(By by, SearchContext context)
+        {
+            this.by = by;
+            this.context = context;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) o;
+            //By compares by its description; contexts must be the same object
+            return by.equals(other.by) && context == other.context;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * by.hashCode() + System.identityHashCode(context);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package utilities;
+
+import java.util.function.Function;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Wait condition that finds an element by watching the DOM with a MutationObserver inside the browser,
+ * so it returns as soon as the element appears instead of at the next poll.
+ * Each apply waits in the browser for up to SLICE_MILLIS, so the waiter can still log warnings and time out.
+ * If the browser can't run the observer (old browser, script timeout too short, page unloaded mid-wait),
+ * falls back to polling findElement for the rest of the wait.
+ */
+class ElementObserver implements Function<SearchContext, WebElement>
+{
+    static final long SLICE_MILLIS = 1000;
+
+    private static final String OBSERVE_SCRIPT = Scripts.FIND_FUNCTION
+        + "var kind = arguments[0], value = arguments[1], root = arguments[2] || document, slice = arguments[3];"
+        + "var done = arguments[arguments.length - 1];"
+        + "if (typeof MutationObserver === 'undefined' || typeof CSS === 'undefined') { done('unsupported'); return; }"
+        + "var found = find(root, kind, value);"
+        + "if (found) { done(found); return; }"
+        + "var finished = false;"
+        + "var observer = new MutationObserver(function () {"
+        + "  var element = find(root, kind, value);"
+        + "  if (element) { finish(element); }"
+        + "});"
+        + "var timer = setTimeout(function () { finish(null); }, slice);"
+        + "function finish(result) {"
+        + "  if (finished) { return; }"
+        + "  finished = true;"
+        + "  observer.disconnect();"
+        + "  clearTimeout(timer);"
+        + "  done(result);"
+        + "}"
+        + "observer.observe(document, {childList: true, subtree: true, attributes: true});";
+
+    private final By by;
+    private final Scripts.Locator locator;
+    private final JavascriptExecutor executor;
+    private boolean polling = false;
+
+    private ElementObserver(By by, Scripts.Locator locator, JavascriptExecutor executor)
+    {
+        this.by = by;
+        this.locator = locator;
+        this.executor = executor;
+    }
+
+    /**
+     * @return a condition that finds by in context, observing the DOM if possible, or else polling findElement
+     */
+    static Function<SearchContext, WebElement> finding(By by, SearchContext context)
+    {
+        Scripts.Locator locator = Scripts.locator(by);
+        JavascriptExecutor executor = Scripts.executorFor(context);
+        if (locator == null || executor == null)
+        {
+            return polling(by);
+        }
+        return new ElementObserver(by, locator, executor);
+    }
+
+    static Function<SearchContext, WebElement> polling(By by)
+    {
+        return context -> context.findElement(by);
+    }
+
+    /**
+     * @return false once the observer has fallen back to polling, and the waiter should sleep between attempts
+     */
+    boolean isObserving()
+    {
+        return !polling;
+    }
+
+    @Override
+    public WebElement apply(SearchContext context)
+    {
+        if (!polling)
+        {
+            try
+            {
+                Object result = executor.executeAsyncScript(OBSERVE_SCRIPT, locator.kind, locator.value, Scripts.rootArgument(context), SLICE_MILLIS);
+                if (result instanceof WebElement)
+                {
+                    return (WebElement) result;
+                }
+                if (result == null)
+                {
+                    return null;
+                }
+                LogManager.debug("Browser can't observe the DOM, falling back to polling for " + by);
+                polling = true;
+            }
+            catch (StaleElementReferenceException ex)
+            {
+                //the element we're searching in is gone, which polling can't fix either
+                throw ex;
+            }
+            catch (WebDriverException ex)
+            {
+                LogManager.debug("Observing the DOM failed, falling back to polling for " + by + ": " + Scripts.firstLine(ex));
+                polling = true;
+            }
+        }
+        return context.findElement(by);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "element " + by;
+    }
+}
@@ -0,0 +1,141 @@
+package utilities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Values to fill into a form, applied by {@link Element#fill(FormFill)}.
+ * Fields given to {@link #set} and {@link #setChecked} are all filled by one script call, which fires the input and change
+ * events that typing or clicking would, so Javascript frameworks on the page notice the new values.
+ * Unlike sendKeys, set replaces the field's value.
+ * Fields given to {@link #type} get real keystrokes, one sendKeys per field, for fields that react to individual key presses.
+ */
+public class FormFill
+{
+    private static final String FILL_SCRIPT = Scripts.FIND_FUNCTION
+        + "var fields = arguments[0], root = arguments[1] || document, elements = [], missing = [];"
+        + "for (var i = 0; i < fields.length; i++) {"
+        + "  var element = find(root, fields[i].kind, fields[i].value);"
+        + "  if (!element) { missing.push(fields[i].description); }"
+        + "  elements.push(element);"
+        + "}"
+        + "if (missing.length) { return missing; }"
+        //fill nothing until every field is present, so the wait can retry the whole form
+        + "for (var j = 0; j < fields.length; j++) {"
+        + "  var field = fields[j], target = elements[j];"
+        + "  if (field.property === 'checked') {"
+        + "    if (target.checked !== field.newValue) { target.click(); }"
+        + "  } else {"
+        //frameworks like React track the value through the prototype's setter, so call it rather than assigning value
+        + "    var descriptor = Object.getOwnPropertyDescriptor(Object.getPrototypeOf(target), 'value');"
+        + "    target.focus();"
+        + "    if (descriptor && descriptor.set) { descriptor.set.call(target, field.newValue); } else { target.value = field.newValue; }"
+        + "    target.dispatchEvent(new Event('input', {bubbles: true}));"
+        + "    target.dispatchEvent(new Event('change', {bubbles: true}));"
+        + "    target.blur();"
+        + "  }"
+        + "}"
+        + "return missing;";
+
+    private final Map<By, Object> scripted = new LinkedHashMap<>();
+    private final Map<By, String> typed = new LinkedHashMap<>();
+
+    /**
+     * Replace the value of a text field, text area, or select
+     */
+    public FormFill set(By field, String value)
+    {
+        scripted.put(field, value);
+        return this;
+    }
+
+    /**
+     * Check or uncheck a checkbox, by clicking it if it isn't already in that state
+     */
+    public FormFill setChecked(By checkbox, boolean checked)
+    {
+        scripted.put(checkbox, checked);
+        return this;
+    }
+
+    /**
+     * Send real keystrokes to a field, after the scripted fields are filled
+     */
+    public FormFill type(By field, String keys)
+    {
+        typed.put(field, keys);
+        return this;
+    }
+
+    void fill(SearchContext context)
+    {
+        List<Map<String, Object>> fields = new ArrayList<>();
+        Map<By, String> individual = new LinkedHashMap<>();
+        JavascriptExecutor executor = Scripts.executorFor(context);
+        scripted.forEach((by, newValue) ->
+        {
+            Scripts.Locator locator = Scripts.locator(by);
+            if (locator == null || executor == null)
+            {
+                individual.put(by, newValue.toString());
+                return;
+            }
+            Map<String, Object> field = new HashMap<>();
+            field.put("kind", locator.kind);
+            field.put("value", locator.value);
+            field.put("description", by.toString());
+            field.put("property", newValue instanceof Boolean ? "checked" : "value");
+            field.put("newValue", newValue);
+            fields.add(field);
+        });
+        if (!fields.isEmpty())
+        {
+            LogManager.debug("Filling {} form fields", fields.size());
+            List<Object> missing = new ArrayList<>();
+            try
+            {
+                Wait.getWaiter(context).withMessage(() -> "to find form fields " + missing).until(context1 ->
+                {
+                    missing.clear();
+                    missing.addAll((List<?>) executor.executeScript(FILL_SCRIPT, fields, Scripts.rootArgument(context1)));
+                    return missing.isEmpty();
+                });
+            }
+            catch (TimeoutException ex)
+            {
+                throw new NoSuchElementException("Could not find form fields: " + missing, ex);
+            }
+        }
+        individual.forEach((by, newValue) -> fillIndividually(by, newValue, context));
+        typed.forEach((by, keys) -> Wait.waiter(by, context).sendKeys(keys));
+    }
+
+    /**
+     * For locators that can only be evaluated by WebDriver
+     */
+    private void fillIndividually(By by, String newValue, SearchContext context)
+    {
+        WebElement element = Wait.waiter(by, context);
+        if (scripted.get(by) instanceof Boolean)
+        {
+            if (element.isSelected() != (Boolean) scripted.get(by))
+            {
+                element.click();
+            }
+        }
+        else
+        {
+            element.clear();
+            element.sendKeys(newValue);
+        }
+    }
+}
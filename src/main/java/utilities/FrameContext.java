@@ -0,0 +1,232 @@
+package utilities;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Tracks which window and frame a driver is in, so switches to where the driver already is are skipped
+ * (each switchTo is a round trip), and switches into nested frames start from the current frame when they can.
+ * Frames are given as paths from the top of the window; each step is a frame name or id (String), index (Integer),
+ * locator (By, relative to the previous step), or frame WebElement.
+ *
+ * The tracker only knows about switches made through it. After switching some other way, call {@link #switchedTo} or {@link #forget}.
+ * When the current context is unknown, the next switch is always made.
+ * One tracker per session; like the session, it should only be used by one thread at a time.
+ */
+public class FrameContext
+{
+    private static final Map<RemoteWebDriver, FrameContext> contexts = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final LongAdder totalSwitches = new LongAdder();
+    private static final LongAdder totalElided = new LongAdder();
+
+    //weak, so the map's key (the driver) isn't kept alive by its own value
+    private final WeakReference<RemoteWebDriver> driver;
+    //Chrome, unlike Firefox, resets you to the outer frame when switching back to a window
+    private final boolean framesSurviveWindowSwitch;
+    //null when unknown
+    private List<Object> frames = null;
+    private String window = null;
+
+    private FrameContext(RemoteWebDriver driver)
+    {
+        this.driver = new WeakReference<>(driver);
+        this.framesSurviveWindowSwitch = "firefox".equals(driver.getCapabilities().getBrowserName());
+    }
+
+    public static FrameContext of(RemoteWebDriver driver)
+    {
+        return contexts.computeIfAbsent(driver, FrameContext::new);
+    }
+
+    /**
+     * Stop tracking a driver that has quit
+     */
+    public static void remove(RemoteWebDriver driver)
+    {
+        contexts.remove(driver);
+    }
+
+    /**
+     * Switch to the top of the current window
+     */
+    public void defaultContent()
+    {
+        toFrame();
+    }
+
+    /**
+     * Switch to the frame at path (from the top of the current window), unless the driver is already there
+     */
+    public void toFrame(Object... path)
+    {
+        List<Object> target = Arrays.asList(path);
+        if (target.equals(frames))
+        {
+            totalElided.increment();
+            return;
+        }
+        List<Object> current = frames;
+        frames = null;
+        int start = 0;
+        if (current != null && isPrefix(current, target))
+        {
+            //already part of the way there
+            totalElided.increment();
+            start = current.size();
+        }
+        else if (current != null && isPrefix(target, current) && current.size() - target.size() <= target.size())
+        {
+            //back out to an enclosing frame, if that's no more switches than starting again from the top
+            for (int i = target.size(); i < current.size(); i++)
+            {
+                driver().switchTo().parentFrame();
+                totalSwitches.increment();
+            }
+            frames = new ArrayList<>(target);
+            return;
+        }
+        else
+        {
+            driver().switchTo().defaultContent();
+            totalSwitches.increment();
+        }
+        for (Object step : target.subList(start, target.size()))
+        {
+            enter(step);
+            totalSwitches.increment();
+        }
+        frames = new ArrayList<>(target);
+    }
+
+    /**
+     * Switch to a window, unless the driver is already at the top of it.
+     * Afterwards the driver is at the top of the window, except in Firefox, where the frame is unknown.
+     */
+    public void window(String handle)
+    {
+        if (handle.equals(window) && frames != null)
+        {
+            totalElided.increment();
+            //already in the window, but maybe in a frame
+            defaultContent();
+            return;
+        }
+        window = null;
+        frames = null;
+        driver().switchTo().window(handle);
+        totalSwitches.increment();
+        window = handle;
+        frames = framesSurviveWindowSwitch ? null : new ArrayList<>();
+    }
+
+    /**
+     * Perform action in the frame at path, then switch back to the frame the driver was in before
+     * (or the top of the window, if that was unknown)
+     */
+    public <T> T inFrame(Supplier<T> action, Object... path)
+    {
+        Object[] previous = frames == null ? new Object[0] : frames.toArray();
+        toFrame(path);
+        try
+        {
+            return action.get();
+        }
+        finally
+        {
+            toFrame(previous);
+        }
+    }
+
+    public void inFrame(Runnable action, Object... path)
+    {
+        inFrame(() ->
+        {
+            action.run();
+            return null;
+        }, path);
+    }
+
+    /**
+     * @return true if the driver is known to be inside a frame, rather than at the top of the window or somewhere unknown
+     */
+    public boolean isInFrame()
+    {
+        return frames != null && !frames.isEmpty();
+    }
+
+    /**
+     * Record a switch to the frame at path (from the top of the current window) that was made without this tracker,
+     * such as by ExpectedConditions.frameToBeAvailableAndSwitchToIt
+     */
+    public void switchedTo(Object... path)
+    {
+        frames = new ArrayList<>(Arrays.asList(path));
+    }
+
+    /**
+     * Record that the top-level page navigated (as driver.get does), which puts the driver at the top of the window
+     */
+    public void navigatedTopLevel()
+    {
+        frames = new ArrayList<>();
+    }
+
+    /**
+     * Record that the window and frame are unknown, after something that may have changed them without this tracker
+     * (such as a page navigation that may have removed the current frame)
+     */
+    public void forget()
+    {
+        frames = null;
+        window = null;
+    }
+
+    public static String summary()
+    {
+        return String.format("Frame and window switches: %d made, %d skipped", totalSwitches.sum(), totalElided.sum());
+    }
+
+    private RemoteWebDriver driver()
+    {
+        return driver.get();
+    }
+
+    private void enter(Object step)
+    {
+        if (step instanceof String)
+        {
+            driver().switchTo().frame((String) step);
+        }
+        else if (step instanceof Integer)
+        {
+            driver().switchTo().frame((Integer) step);
+        }
+        else if (step instanceof By)
+        {
+            driver().switchTo().frame(driver().findElement((By) step));
+        }
+        else if (step instanceof WebElement)
+        {
+            driver().switchTo().frame((WebElement) step);
+        }
+        else
+        {
+            throw new IllegalArgumentException("Frame path steps must be String, Integer, By, or WebElement, not " + step);
+        }
+    }
+
+    private static boolean isPrefix(List<Object> prefix, List<Object> list)
+    {
+        return prefix.size() <= list.size() && list.subList(0, prefix.size()).equals(prefix);
+    }
+}
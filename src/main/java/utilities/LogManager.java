@@ -1,16 +1,24 @@
 package utilities;
 
-import com.google.common.collect.EvictingQueue;
-import java.text.DateFormat;
-import java.util.Date;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
 
 /**
  * Log only the messages at LOG_LEVEL or above, but save up to RECENT_MESSAGES_LIMIT recent messages from all levels, and display those messages if the test fails
+ * Recent messages and warning counts are kept per thread, and each test runs on a single thread,
+ * so with parallel tests they only include the current test's messages (call {@link #reset()} when the test starts).
+ * At disabled levels, the parameterized ("{}") overloads save the format and arguments as a recent message without formatting them,
+ * so they are only formatted if the test fails. Use them for messages logged very often.
+ * The Supplier overloads skip disabled levels entirely: the message is never built, and is not saved as a recent message.
+ * Use them for messages that are expensive to build, such as ones that need a round trip to the browser.
  */
 public class LogManager
 {
@@ -18,62 +26,91 @@ public class LogManager
     private static final int RECENT_MESSAGES_LIMIT = 20;
 
     private static final Logger logger = org.apache.logging.log4j.LogManager.getLogger(LogManager.class.getName());
-    private static final EvictingQueue<TimestampedMessage> allRecentMessages = EvictingQueue.create(RECENT_MESSAGES_LIMIT);
-    private static int warningsCount = 0;
+    private static final ThreadLocal<RecentMessages> recentMessages = ThreadLocal.withInitial(() -> new RecentMessages(RECENT_MESSAGES_LIMIT));
+    private static final LongAdder totalWarningsCount = new LongAdder();
+
+    private static final String DESCRIBE_ELEMENT_SCRIPT = "var element = arguments[0];"
+        + "return element.tagName.toLowerCase()"
+        + " + (element.id ? '#' + element.id : '')"
+        + " + ' \"' + (element.innerText || '').trim().replace(/\\n/g, '\u00b6') + '\"'"
+        + " + ' class=\"' + (element.getAttribute('class') || '') + '\"';";
 
     static
     {
         Configurator.setAllLevels(logger.getName(), LOG_LEVEL);
     }
 
-    private static class TimestampedMessage
+    public static void dumpRecentMessages()
     {
-        //This isn't exactly the same format as the real log4j. But, whatever
-        private static final DateFormat dateFormat = DateFormat.getDateTimeInstance();
-        public final String message;
-        public final Date timestamp;
-        public final Level level;
-        public final String threadName;
-
-        public TimestampedMessage(String message, Date timestamp, Level level, String threadName)
-        {
-            this.message = message;
-            this.timestamp = timestamp;
-            this.level = level;
-            this.threadName = threadName;
-        }
-
-        @Override
-        public String toString()
-        {
-            return String.format("[%-5s] %s [%s] %s - %s", level, dateFormat.format(timestamp), threadName, LogManager.class.getSimpleName(), message);
-        }
+        StringBuilder dump = new StringBuilder("All recent log messages before crash:");
+        recentMessages.get().forEach(message -> dump.append(System.lineSeparator()).append(message));
+        //one println, so dumps from parallel tests don't interleave
+        System.err.println(dump);
     }
 
-    public static void dumpRecentMessages()
+    /**
+     * @return the number of warnings and errors logged by this thread since {@link #reset()}
+     */
+    public static int getWarningsCount()
     {
-        System.err.println("All recent log messages before crash:");
-        allRecentMessages.forEach(System.err::println);
+        return recentMessages.get().getWarnings();
     }
 
-    public static int getWarningsCount()
+    /**
+     * @return the number of warnings and errors logged by all threads
+     */
+    public static long getTotalWarningsCount()
     {
-        return warningsCount;
+        return totalWarningsCount.sum();
     }
 
+    /**
+     * Forget this thread's recent messages and warnings, at the start of a test
+     */
     public static void reset()
     {
-        allRecentMessages.clear();
-        warningsCount = 0;
+        recentMessages.get().clear();
     }
 
     public static void log(Level level, String message)
     {
         logger.log(level, message);
-        allRecentMessages.add(new TimestampedMessage(message, new Date(), level, Thread.currentThread().getName()));
+        recentMessages.get().add(level, message);
         if (level.isMoreSpecificThan(Level.WARN))
         {
-            warningsCount++;
+            totalWarningsCount.increment();
+        }
+    }
+
+    public static void log(Level level, Supplier<String> message)
+    {
+        if (isEnabled(level))
+        {
+            log(level, message.get());
+        }
+    }
+
+    public static void log(Level level, String format, Object arg)
+    {
+        if (isEnabled(level))
+        {
+            log(level, ParameterizedMessage.format(format, new Object[] {arg}));
+        }
+        else
+        {
+            recentMessages.get().add(level, format, 1, arg, null);
+        }
+    }
+
+    public static void log(Level level, String format, Object arg1, Object arg2)
+    {
+        if (isEnabled(level))
+        {
+            log(level, ParameterizedMessage.format(format, new Object[] {arg1, arg2}));
+        }
+        else
+        {
+            recentMessages.get().add(level, format, 2, arg1, arg2);
         }
     }
 
@@ -102,15 +139,67 @@ public class LogManager
         log(Level.DEBUG, message);
     }
 
+    public static void debug(Supplier<String> message)
+    {
+        log(Level.DEBUG, message);
+    }
+
+    public static void debug(String format, Object arg)
+    {
+        log(Level.DEBUG, format, arg);
+    }
+
+    public static void debug(String format, Object arg1, Object arg2)
+    {
+        log(Level.DEBUG, format, arg1, arg2);
+    }
+
     public static void trace(String message)
     {
         log(Level.TRACE, message);
     }
 
+    public static void trace(Supplier<String> message)
+    {
+        log(Level.TRACE, message);
+    }
+
+    public static void trace(String format, Object arg)
+    {
+        log(Level.TRACE, format, arg);
+    }
+
+    public static void trace(String format, Object arg1, Object arg2)
+    {
+        log(Level.TRACE, format, arg1, arg2);
+    }
+
+    public static boolean isEnabled(Level level)
+    {
+        return logger.isEnabled(level);
+    }
+
+    /**
+     * Describe an element for logging, using a single script call.
+     * This still costs a round trip, so only call it when the message will be logged,
+     * for example from a Supplier passed to {@link #trace(Supplier)}.
+     */
     public static String describeElement(WebElement element)
     {
         try
         {
+            JavascriptExecutor executor = Scripts.executorFor(element);
+            if (executor != null)
+            {
+                try
+                {
+                    return (String) executor.executeScript(DESCRIBE_ELEMENT_SCRIPT, element);
+                }
+                catch (JavascriptException ex)
+                {
+                    //fall back to asking WebDriver for each property
+                }
+            }
             return element.getTagName()
                 + (element.getAttribute("id").isEmpty() ? "" : "#" + element.getAttribute("id"))
                 + " \"" + element.getText().replace('\n', '¶') + "\""
@@ -1,14 +1,21 @@
 package utilities;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Set;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.openqa.selenium.By;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 
 /**
@@ -21,6 +28,9 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
  */
 public abstract class Navigate extends PageUtility
 {
+    //titles of the error pages a site serves with an ordinary page load, such as for a mistyped or moved URL
+    private static final Pattern ERROR_TITLE = Pattern.compile("(?i).*\\b(404|not found)\\b.*");
+
     public Navigate(Page page)
     {
         super(page);
@@ -40,7 +50,23 @@ public abstract class Navigate extends PageUtility
      */
     public void waitForReady()
     {
-        waiter().until(Wait.pageFinishedLoading);
+        PageLoadDetector.waitForDocumentReady(driver);
+        Duration quietWindow = networkQuietWindow();
+        if (quietWindow != null)
+        {
+            NetworkIdle.waitForIdle(quietWindow, driver);
+        }
+    }
+
+    /**
+     * Override to opt in to waiting, in {@link #waitForReady}, until the page has made no fetch/XHR requests for this long.
+     * Useful for pages that load their content with Javascript after the document loads.
+     *
+     * @return the quiet window, or null (the default) to not wait for the network
+     */
+    protected Duration networkQuietWindow()
+    {
+        return null;
     }
 
     /**
@@ -53,13 +79,22 @@ public abstract class Navigate extends PageUtility
      * @return newPage, only after it is ready to accept commands.
      */
     public <T extends Page> T via(Runnable doNavigate, T newPage)
+    {
+        return via("via", doNavigate, newPage);
+    }
+
+    /**
+     * @param transition
+     *     The name of the navigation method, for {@link NavigationTimings}
+     */
+    private <T extends Page> T via(String transition, Runnable doNavigate, T newPage)
     {
         WebElement root = getRootElement();
         Runnable waitForPageRootGone = () ->
         {
             try
             {
-                retryIfInspectorBug(() -> waiter().until(Wait.elementGone(root)));
+                retryIfInspectorBug(() -> PageLoadDetector.waitUntilGone(root, driver));
             }
             catch (TimeoutException ex)
             {
@@ -72,38 +107,147 @@ public abstract class Navigate extends PageUtility
                 throw new RuntimeException(message, ex);
             }
         };
-        return navigateAndWait(doNavigate, waitForPageRootGone, newPage);
+        return navigateAndWait(transition, doNavigate, waitForPageRootGone, newPage);
+    }
+
+    /**
+     * Load a page straight from its {@link PageUrl}, without first loading the pages that link to it.
+     * The page is ready to use on return, just as if it was reached with {@link #via}.
+     * Fails if the browser was redirected to a different page, or the page's title says it is an error page,
+     * since those load as successfully as the real page would.
+     * Any Page the driver was on before must not be used afterwards.
+     *
+     * @param pageClass
+     *     A Page annotated with {@link PageUrl}
+     * @return the new page, only after it is ready to accept commands.
+     */
+    public static <T extends Page> T directTo(Class<T> pageClass, RemoteWebDriver driver)
+    {
+        PageUrl url = pageClass.getAnnotation(PageUrl.class);
+        if (url == null)
+        {
+            throw new IllegalArgumentException(pageClass.getSimpleName() + " has no @PageUrl, so it can only be reached by navigating from another page");
+        }
+        T newPage = construct(pageClass, driver);
+        LogManager.info(">>> Navigating directly to " + pageClass.getSimpleName() + " at " + url.value());
+        long start = System.currentTimeMillis();
+        //get returns once the new document has loaded, so there is no old page to wait for
+        driver.get(url.value());
+        FrameContext.of(driver).navigatedTopLevel();
+        newPage.navigate().waitForReady();
+        if (!url.readyWhenPresent().isEmpty())
+        {
+            Wait.waiter(By.cssSelector(url.readyWhenPresent()), driver);
+        }
+        newPage.assertLoaded();
+        assertReached(url.value(), pageClass, driver);
+        NavigationTimings.record("directTo", null, newPage, null, System.currentTimeMillis() - start, driver);
+        return newPage;
+    }
+
+    /**
+     * The host may differ by a leading www., and the path by a trailing slash, since sites commonly redirect between those
+     */
+    private static void assertReached(String expected, Class<? extends Page> pageClass, RemoteWebDriver driver)
+    {
+        URI wanted = URI.create(expected);
+        String currentUrl = driver.getCurrentUrl();
+        URI reached = URI.create(currentUrl);
+        if (!canonicalHost(wanted).equals(canonicalHost(reached)) || !canonicalPath(wanted).equals(canonicalPath(reached)))
+        {
+            fail(pageClass.getSimpleName() + " at " + expected + " redirected to " + currentUrl);
+        }
+        String title = driver.getTitle();
+        if (ERROR_TITLE.matcher(title).matches())
+        {
+            fail(pageClass.getSimpleName() + " at " + expected + " is an error page: " + title);
+        }
+    }
+
+    private static String canonicalHost(URI uri)
+    {
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase();
+        return host.startsWith("www.") ? host.substring(4) : host;
+    }
+
+    private static String canonicalPath(URI uri)
+    {
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private static <T extends Page> T construct(Class<T> pageClass, RemoteWebDriver driver)
+    {
+        try
+        {
+            Constructor<T> constructor = pageClass.getDeclaredConstructor(RemoteWebDriver.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(driver);
+        }
+        catch (NoSuchMethodException | InstantiationException | IllegalAccessException ex)
+        {
+            throw new IllegalArgumentException(pageClass.getSimpleName() + " must have a constructor that takes only a RemoteWebDriver", ex);
+        }
+        catch (InvocationTargetException ex)
+        {
+            throw new RuntimeException("Could not construct " + pageClass.getSimpleName(), ex.getCause());
+        }
     }
 
     public <T extends Page> T viaClickNewIFrame(By link, T newPage, By iframe, boolean buttonOutsideOfFrame)
     {
+        FrameContext frames = FrameContext.of(driver);
         if (buttonOutsideOfFrame)
         {
-            driver.switchTo().defaultContent();
+            frames.defaultContent();
             element().click(link);
         }
         else
         {
             element().click(link);
-            driver.switchTo().defaultContent();
+            frames.defaultContent();
         }
         WebElement frame = driver.findElement(By.tagName("iframe"));
-        return navigateAndWait(() -> waiter().until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(iframe)), () -> waiter().until(ExpectedConditions.invisibilityOf(frame)), newPage);
+        return navigateAndWait("viaClickNewIFrame", () ->
+        {
+            waiter().until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(iframe));
+            frames.switchedTo(iframe);
+        }, () -> waiter().until(ExpectedConditions.invisibilityOf(frame)), newPage);
     }
 
     public <T extends Page> T viaClickNewSection(WebElement link, T newPage, WebElement section)
     {
-        return navigateAndWait(() -> element().click(link), () -> waiter().until(ExpectedConditions.visibilityOf(section)), newPage);
+        return navigateAndWait("viaClickNewSection", () -> element().click(link), () -> waiter().until(ExpectedConditions.visibilityOf(section)), newPage);
     }
 
-    private <T extends Page> T navigateAndWait(Runnable doNavigate, Runnable waitForOldPageGone, T newPage)
+    /**
+     * Times each stage of the transition, for {@link NavigationTimings}
+     */
+    private <T extends Page> T navigateAndWait(String transition, Runnable doNavigate, Runnable waitForOldPageGone, T newPage)
     {
         LogManager.info(">>> Navigating to " + newPage.getClass().getSimpleName());
         assertNotClosed();
+        if (newPage.navigate().networkQuietWindow() != null)
+        {
+            //so requests started by a Javascript-driven navigation are tracked
+            NetworkIdle.install(driver);
+        }
+        //the driver stays in its frame when only the frame's document changes, but not when the top-level document is replaced;
+        //at the top of the window (or after switches doNavigate records) the tracker stays right either way
+        FrameContext frames = FrameContext.of(driver);
+        boolean wasInFrame = frames.isInFrame();
+        String topDocument = wasInFrame ? PageLoadDetector.markTopDocument(driver) : null;
+        long start = System.currentTimeMillis();
         doNavigate.run();
         close();
         waitForOldPageGone.run();
+        long oldPageGone = System.currentTimeMillis();
+        if (wasInFrame && !PageLoadDetector.isSameTopDocument(topDocument, driver))
+        {
+            frames.forget();
+        }
         waitForReady(newPage);
+        NavigationTimings.record(transition, page, newPage, oldPageGone - start, System.currentTimeMillis() - oldPageGone, driver);
         return newPage;
     }
 
@@ -119,12 +263,12 @@ public abstract class Navigate extends PageUtility
      */
     public <T extends Page> T viaClick(WebElement link, T newPage)
     {
-        return via(() -> element().click(link), newPage);
+        return via("viaClick", () -> element().click(link), newPage);
     }
 
     public <T extends Page> T viaClickToNewWindow(WebElement link, T newPage)
     {
-        return via(() ->
+        return via("viaClickToNewWindow", () ->
         {
             int windows = driver.getWindowHandles().size();
             element().click(link);
@@ -135,7 +279,7 @@ public abstract class Navigate extends PageUtility
 
     public <T extends Page> T viaWindowToIframe(WebElement link, T newPage, By iframe, boolean alert)
     {
-        return via(() ->
+        return via("viaWindowToIframe", () ->
         {
             element().click(link);
             if (alert)
@@ -144,24 +288,26 @@ public abstract class Navigate extends PageUtility
                 waiter().until(ExpectedConditions.numberOfWindowsToBe(1));
             }
             window().tabFocus();
-            if (driver.getCapabilities().getBrowserName().equals("firefox"))
-            {
-                driver.switchTo().defaultContent(); //Chrome, unlike Firefox, resets you to the outer frame when switching back to a window
-            }
+            FrameContext frames = FrameContext.of(driver);
+            //skipped in Chrome, which resets you to the outer frame when switching windows
+            frames.defaultContent();
             waiter().until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(iframe));
+            frames.switchedTo(iframe);
         }, newPage);
     }
 
     public <T extends Page> T viaNewFrameThatRefreshes(By link, T newPage, String iframe, By elementToBeStaleBy)
     {
-        driver.switchTo().defaultContent();
-        driver.switchTo().frame(iframe);
-        WebElement elementToGoStale = driver.findElement(elementToBeStaleBy);
-        driver.switchTo().defaultContent();
+        FrameContext frames = FrameContext.of(driver);
+        WebElement elementToGoStale = frames.inFrame(() -> driver.findElement(elementToBeStaleBy), iframe);
+        frames.defaultContent();
+        long start = System.currentTimeMillis();
         element().click(link);
-        driver.switchTo().frame(iframe);
+        frames.toFrame(iframe);
         waiter().until(ExpectedConditions.stalenessOf(elementToGoStale));
+        long oldPageGone = System.currentTimeMillis();
         waitForReady(newPage);
+        NavigationTimings.record("viaNewFrameThatRefreshes", page, newPage, oldPageGone - start, System.currentTimeMillis() - oldPageGone, driver);
         return newPage;
     }
 
@@ -173,6 +319,7 @@ public abstract class Navigate extends PageUtility
         waiter().waitForPageLoaded(() ->
         {
             driver.navigate().refresh();
+            FrameContext.of(driver).forget();
             if (acceptAlert)
             {
                 window().alertConfirm();
@@ -216,16 +363,16 @@ public abstract class Navigate extends PageUtility
     }
     public <T extends Page> T viaClickToNewWindowFrame(WebElement link, T newPage,String frame)
     {
-        return via(() ->
+        return via("viaClickToNewWindowFrame", () ->
         {
             final Set<String> windowHandles = driver.getWindowHandles();
             LogManager.info("Driver visible window handles: " + windowHandles.toString());
             String baseWindow = windowHandles.stream().filter(d -> !d.equals(driver.getWindowHandle())).collect(Collectors.toCollection(ArrayList::new)).get(0);
             element().click(link);
             waiter().until(d -> driver.getWindowHandles().size() == 1);
-            driver.switchTo().window(baseWindow);
-            driver.switchTo().defaultContent();
-            driver.switchTo().frame(frame);
+            FrameContext frames = FrameContext.of(driver);
+            frames.window(baseWindow);
+            frames.toFrame(frame);
         }, newPage);
     }
 }
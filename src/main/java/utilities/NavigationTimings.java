@@ -0,0 +1,50 @@
+package utilities;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Records how long each Navigate transition took, one CSV line per transition, to the navigationTimings logger
+ * (see log4j2.xml), so timings can be compared across runs by source and target Page class.
+ * Columns: timestamp, transition, source page (empty for {@link Navigate#directTo}), target page, time from starting navigation until the old page was gone
+ * (empty for directTo, which has no old page), time from then (or for directTo, from starting navigation) until the new page was ready, then the new document's responseEnd, domContentLoaded, loadEvent,
+ * firstPaint, and firstContentfulPaint (ms since timeOrigin), timeOrigin (epoch ms), and URL.
+ * For Javascript-driven navigations, the browser timings are those of the document that was already loaded.
+ */
+public class NavigationTimings
+{
+    private static final Logger timings = org.apache.logging.log4j.LogManager.getLogger("navigationTimings");
+
+    private NavigationTimings()
+    {
+    }
+
+    /**
+     * @param startToOldPageGoneMillis
+     *     null if there was no old page to wait for
+     */
+    static void record(String transition, Page source, Page target, Long startToOldPageGoneMillis, long oldPageGoneToReadyMillis, RemoteWebDriver driver)
+    {
+        LogManager.debug(() -> transition + " to " + target.getClass().getSimpleName() + " took "
+            + ((startToOldPageGoneMillis == null ? 0 : startToOldPageGoneMillis) + oldPageGoneToReadyMillis) + " ms");
+        if (!timings.isInfoEnabled())
+        {
+            return;
+        }
+        Map<String, Object> browser = BrowserTimings.navigation(driver);
+        String url = Objects.toString(browser.get("url"), "");
+        String line = Stream.of(Instant.now(), transition, source == null ? null : source.getClass().getSimpleName(), target.getClass().getSimpleName(),
+            startToOldPageGoneMillis, oldPageGoneToReadyMillis,
+            BrowserTimings.millis(browser, "responseEnd"), BrowserTimings.millis(browser, "domContentLoaded"), BrowserTimings.millis(browser, "loadEvent"),
+            BrowserTimings.millis(browser, "firstPaint"), BrowserTimings.millis(browser, "firstContentfulPaint"), BrowserTimings.millis(browser, "timeOrigin"),
+            "\"" + url.replace("\"", "\"\"") + "\"")
+            .map(value -> value == null ? "" : value.toString())
+            .collect(Collectors.joining(","));
+        timings.info(line);
+    }
+}
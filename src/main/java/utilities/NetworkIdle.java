@@ -0,0 +1,74 @@
+package utilities;
+
+import java.time.Duration;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Tracks fetch and XMLHttpRequest requests in the page, to wait until a Javascript-driven page has finished loading its content.
+ * The tracker is installed by wrapping fetch and XMLHttpRequest.send, so it only sees requests made after it was installed
+ * (and is removed when a new document loads). Install it before the action that starts the requests when possible.
+ */
+public class NetworkIdle
+{
+    private static final long SLICE_MILLIS = 1000;
+
+    private static final String INSTALL_SCRIPT = "if (!window.__networkIdle) {"
+        + "  var tracker = window.__networkIdle = {pending: 0, lastActivity: Date.now()};"
+        + "  var start = function () { tracker.pending++; tracker.lastActivity = Date.now(); };"
+        + "  var end = function () { tracker.pending = Math.max(0, tracker.pending - 1); tracker.lastActivity = Date.now(); };"
+        + "  if (window.fetch) {"
+        + "    var originalFetch = window.fetch;"
+        + "    window.fetch = function () {"
+        + "      start();"
+        + "      return originalFetch.apply(this, arguments).then(function (response) { end(); return response; }, function (error) { end(); throw error; });"
+        + "    };"
+        + "  }"
+        + "  var originalSend = XMLHttpRequest.prototype.send;"
+        + "  XMLHttpRequest.prototype.send = function () {"
+        + "    start();"
+        + "    this.addEventListener('loadend', end);"
+        + "    return originalSend.apply(this, arguments);"
+        + "  };"
+        + "}";
+
+    private static final String WAIT_FOR_IDLE_SCRIPT = INSTALL_SCRIPT
+        + "var quiet = arguments[0], deadline = Date.now() + arguments[1], done = arguments[arguments.length - 1];"
+        + "var tracker = window.__networkIdle;"
+        + "function check() {"
+        + "  if (tracker.pending === 0 && Date.now() - tracker.lastActivity >= quiet) { done(true); return; }"
+        + "  if (Date.now() >= deadline) { done(false); return; }"
+        //check after each animation frame, so the page has rendered what the requests returned; hidden pages get no frames
+        + "  if (document.hidden) { setTimeout(check, 50); } else { requestAnimationFrame(check); }"
+        + "}"
+        + "check();";
+
+    private NetworkIdle()
+    {
+    }
+
+    public static void install(RemoteWebDriver driver)
+    {
+        driver.executeScript(INSTALL_SCRIPT);
+    }
+
+    /**
+     * Wait until no fetch or XMLHttpRequest requests are pending and none has started or finished for quietWindow.
+     * Installs the tracker if it isn't already installed, in which case the quiet window starts now.
+     */
+    public static void waitForIdle(Duration quietWindow, RemoteWebDriver driver)
+    {
+        Wait.getWaiter(driver).pollingWith(polls -> Duration.ZERO).withMessage("for network to be idle for " + quietWindow.toMillis() + " ms").until(d ->
+        {
+            try
+            {
+                return Boolean.TRUE.equals(driver.executeAsyncScript(WAIT_FOR_IDLE_SCRIPT, quietWindow.toMillis(), SLICE_MILLIS));
+            }
+            catch (JavascriptException ex)
+            {
+                //a new document loaded during the script; wait in the new one
+                return false;
+            }
+        });
+    }
+}
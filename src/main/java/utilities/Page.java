@@ -31,6 +31,7 @@ public abstract class Page
     private final Navigate navigate;
     private final Wait waiter;
     private final Window window;
+    private final ElementCache elementCache = new ElementCache();
 
     protected Page(RemoteWebDriver driver)
     {
@@ -60,6 +61,8 @@ public abstract class Page
     {
         assertNotClosed();
         closed = true;
+        elementCache.clear();
+        LogManager.debug("Element cache for {}: {}", getClass().getSimpleName(), elementCache);
     }
 
     protected Element constructElement(){
@@ -120,4 +123,9 @@ public abstract class Page
         return window;
     }
 
+    ElementCache elementCache()
+    {
+        return elementCache;
+    }
+
 }
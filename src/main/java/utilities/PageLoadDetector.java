@@ -0,0 +1,151 @@
+package utilities;
+
+import java.time.Duration;
+import java.util.UUID;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+/**
+ * Detects page loads with load events and MutationObservers in the browser, instead of polling readyState or staleness.
+ * Each script call waits in the browser for up to SLICE_MILLIS, so waits still log warnings and time out as usual.
+ * When a page unloads during a script call, the call fails; that just means the load is in progress, so the wait tries again.
+ */
+public class PageLoadDetector
+{
+    private static final long SLICE_MILLIS = 1000;
+
+    private static final String MARK_DOCUMENT_SCRIPT = "window.__pageLoadMarker = arguments[0];";
+
+    //a frame that isn't same-origin with the top document can't reach it
+    private static final String MARK_TOP_DOCUMENT_SCRIPT = "try { window.top.__topDocumentMarker = arguments[0]; return true; } catch (e) { return false; }";
+
+    private static final String TOP_DOCUMENT_MARKER_SCRIPT = "try { return window.top.__topDocumentMarker || null; } catch (e) { return null; }";
+
+    private static final String DOCUMENT_READY_SCRIPT = "var marker = arguments[0], slice = arguments[1], done = arguments[arguments.length - 1];"
+        + "if (marker !== null && window.__pageLoadMarker === marker) {"
+        //still the old document; wait for it to unload (which interrupts this script)
+        + "  setTimeout(function () { done(false); }, slice);"
+        + "  return;"
+        + "}"
+        + "if (document.readyState === 'complete') { done(true); return; }"
+        + "var timer = setTimeout(function () { done(false); }, slice);"
+        //finish on the next task, so the page's own load handlers (which may run after this one) have run first
+        + "window.addEventListener('load', function () { clearTimeout(timer); setTimeout(function () { done(true); }, 0); });";
+
+    private static final String ELEMENT_GONE_SCRIPT = "var element = arguments[0], slice = arguments[1], done = arguments[arguments.length - 1];"
+        + "if (!document.contains(element)) { done(true); return; }"
+        + "var finished = false;"
+        + "var observer = new MutationObserver(function () { if (!document.contains(element)) { finish(true); } });"
+        + "var timer = setTimeout(function () { finish(false); }, slice);"
+        + "function finish(gone) {"
+        + "  if (finished) { return; }"
+        + "  finished = true;"
+        + "  observer.disconnect();"
+        + "  clearTimeout(timer);"
+        + "  done(gone);"
+        + "}"
+        + "observer.observe(document, {childList: true, subtree: true});";
+
+    private PageLoadDetector()
+    {
+    }
+
+    /**
+     * Perform doNavigate, then wait until a new document has replaced the current one and finished loading.
+     * Fails if no new document loads.
+     */
+    public static void navigateAndWaitForNewDocument(Runnable doNavigate, RemoteWebDriver driver)
+    {
+        String marker = UUID.randomUUID().toString();
+        driver.executeScript(MARK_DOCUMENT_SCRIPT, marker);
+        doNavigate.run();
+        waitForDocumentReady(marker, driver);
+    }
+
+    /**
+     * Mark the window's top-level document from inside one of its frames, so {@link #isSameTopDocument} can tell later whether it was replaced
+     *
+     * @return the marker, or null if the top-level document can't be reached from the current frame
+     */
+    public static String markTopDocument(RemoteWebDriver driver)
+    {
+        String marker = UUID.randomUUID().toString();
+        return Boolean.TRUE.equals(driver.executeScript(MARK_TOP_DOCUMENT_SCRIPT, marker)) ? marker : null;
+    }
+
+    /**
+     * @return true if the window's top-level document is still the one marked with marker;
+     * false if it was replaced, or can't be reached, or marker is null
+     */
+    public static boolean isSameTopDocument(String marker, RemoteWebDriver driver)
+    {
+        if (marker == null)
+        {
+            return false;
+        }
+        try
+        {
+            return marker.equals(driver.executeScript(TOP_DOCUMENT_MARKER_SCRIPT));
+        }
+        catch (WebDriverException ex)
+        {
+            //the frame the driver was in went away with the old top-level document
+            return false;
+        }
+    }
+
+    /**
+     * Wait until the current document has finished loading
+     */
+    public static void waitForDocumentReady(RemoteWebDriver driver)
+    {
+        waitForDocumentReady(null, driver);
+    }
+
+    /**
+     * Wait until element has been removed from the page, either by a page load or by Javascript replacing part of the page
+     */
+    public static void waitUntilGone(WebElement element, RemoteWebDriver driver)
+    {
+        ExpectedCondition<Boolean> elementGone = Wait.elementGone(element);
+        Wait.getWaiter(driver).pollingWith(polls -> Duration.ZERO).withMessage("for element to be removed from the page").until(d ->
+        {
+            try
+            {
+                return Boolean.TRUE.equals(driver.executeAsyncScript(ELEMENT_GONE_SCRIPT, element, SLICE_MILLIS));
+            }
+            catch (StaleElementReferenceException ex)
+            {
+                return true;
+            }
+            catch (JavascriptException | ScriptTimeoutException | NoSuchElementException ex)
+            {
+                //the page unloaded during the script, or (in Firefox) the element belongs to a page that's gone
+                return elementGone.apply(driver);
+            }
+        });
+    }
+
+    private static void waitForDocumentReady(String marker, RemoteWebDriver driver)
+    {
+        String description = marker == null ? "for page to finish loading" : "for new page to load";
+        Wait.getWaiter(driver).pollingWith(polls -> Duration.ZERO).withMessage(description).until(d ->
+        {
+            try
+            {
+                return Boolean.TRUE.equals(driver.executeAsyncScript(DOCUMENT_READY_SCRIPT, marker, SLICE_MILLIS));
+            }
+            catch (JavascriptException | ScriptTimeoutException ex)
+            {
+                //the old page unloaded during the script; check the new one
+                return false;
+            }
+        });
+    }
+}
@@ -14,6 +14,7 @@ public class PageNavigate extends Navigate
     /**
      * Some products use pseudo-page-loads where, on "load", element is replaced while
      * the dimmer blocks
+     * If the replacement content is loaded by fetch/XHR, also override {@link #networkQuietWindow()}
      */
     @Override
     protected WebElement getRootElement()
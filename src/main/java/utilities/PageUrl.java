@@ -0,0 +1,29 @@
+package utilities;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Where a Page can be loaded directly, with {@link Navigate#directTo}, instead of navigating to it from another page.
+ * Only declare it on pages that are reachable by URL alone (no state from earlier pages is needed).
+ * The annotated class must have a constructor that takes just a RemoteWebDriver (it may be protected).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface PageUrl
+{
+    /**
+     * The absolute URL of the page. {@link Navigate#directTo} fails if loading it ends up anywhere else.
+     */
+    String value();
+
+    /**
+     * A CSS selector for an element whose presence means the page is ready, in addition to {@link Navigate#waitForReady}.
+     * Empty (the default) for none.
+     */
+    String readyWhenPresent() default "";
+}
@@ -66,4 +66,9 @@ public class PageUtility
     {
         return page.window();
     }
+
+    ElementCache elementCache()
+    {
+        return page.elementCache();
+    }
 }
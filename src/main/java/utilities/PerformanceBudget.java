@@ -0,0 +1,196 @@
+package utilities;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Limits on how slow or heavy the current page may be, checked by {@link Assert#performanceWithin(PerformanceBudget)}
+ * against the timings the browser recorded for the current document, read with one script call.
+ * Times are measured from when the navigation to the page started.
+ * Resource sizes are only reported for same-origin resources, and cross-origin ones that send Timing-Allow-Origin;
+ * others count as 0 bytes.
+ */
+public class PerformanceBudget
+{
+    private static final int OFFENDERS_LIMIT = 10;
+
+    private Duration loadEvent;
+    private Duration firstPaint;
+    private Duration firstContentfulPaint;
+    private Duration largestContentfulPaint;
+    private Integer resources;
+    private Long transferBytes;
+    private Duration longTask;
+
+    public static PerformanceBudget budget()
+    {
+        return new PerformanceBudget();
+    }
+
+    public PerformanceBudget loadEventWithin(Duration limit)
+    {
+        loadEvent = limit;
+        return this;
+    }
+
+    public PerformanceBudget firstPaintWithin(Duration limit)
+    {
+        firstPaint = limit;
+        return this;
+    }
+
+    public PerformanceBudget firstContentfulPaintWithin(Duration limit)
+    {
+        firstContentfulPaint = limit;
+        return this;
+    }
+
+    public PerformanceBudget largestContentfulPaintWithin(Duration limit)
+    {
+        largestContentfulPaint = limit;
+        return this;
+    }
+
+    public PerformanceBudget maxResources(int limit)
+    {
+        resources = limit;
+        return this;
+    }
+
+    public PerformanceBudget maxTransferBytes(long limit)
+    {
+        transferBytes = limit;
+        return this;
+    }
+
+    /**
+     * No task may block the page's main thread for longer than limit.
+     * Browsers only report tasks over 50 ms.
+     */
+    public PerformanceBudget noLongTasksOver(Duration limit)
+    {
+        longTask = limit;
+        return this;
+    }
+
+    @Override
+    public String toString()
+    {
+        List<String> limits = new ArrayList<>();
+        addLimit(limits, "load event", loadEvent);
+        addLimit(limits, "first paint", firstPaint);
+        addLimit(limits, "first contentful paint", firstContentfulPaint);
+        addLimit(limits, "largest contentful paint", largestContentfulPaint);
+        if (resources != null)
+        {
+            limits.add("at most " + resources + " resources");
+        }
+        if (transferBytes != null)
+        {
+            limits.add("at most " + transferBytes + " bytes transferred");
+        }
+        if (longTask != null)
+        {
+            limits.add("no long tasks over " + longTask.toMillis() + " ms");
+        }
+        return String.join(", ", limits);
+    }
+
+    /**
+     * @param timings
+     *     From {@link BrowserTimings#performance}
+     * @return a description of each way the page exceeded the budget, with the resources or tasks responsible
+     */
+    @SuppressWarnings("unchecked")
+    List<String> violations(Map<String, Object> timings)
+    {
+        List<String> violations = new ArrayList<>();
+        List<Map<String, Object>> loaded = (List<Map<String, Object>>) timings.get("resources");
+        checkTime(violations, "Load event", loadEvent, timings, "loadEvent", loaded);
+        checkTime(violations, "First paint", firstPaint, timings, "firstPaint", loaded);
+        checkTime(violations, "First contentful paint", firstContentfulPaint, timings, "firstContentfulPaint", loaded);
+        checkTime(violations, "Largest contentful paint", largestContentfulPaint, timings, "largestContentfulPaint", loaded);
+        if (resources != null && loaded.size() > resources)
+        {
+            violations.add("Loaded " + loaded.size() + " resources, more than " + resources + ". Largest:"
+                + describe(loaded, Comparator.comparing(resource -> -number(resource, "transferSize"))));
+        }
+        long transferred = loaded.stream().mapToLong(resource -> number(resource, "transferSize")).sum();
+        if (transferBytes != null && transferred > transferBytes)
+        {
+            violations.add("Transferred " + transferred + " bytes, more than " + transferBytes + ". Largest:"
+                + describe(loaded, Comparator.comparing(resource -> -number(resource, "transferSize"))));
+        }
+        if (longTask != null)
+        {
+            List<Map<String, Object>> tasks = (List<Map<String, Object>>) timings.get("longTasks");
+            if (tasks == null)
+            {
+                violations.add("Browser does not report long tasks");
+            }
+            else
+            {
+                String over = tasks.stream()
+                    .filter(task -> number(task, "duration") > longTask.toMillis())
+                    .map(task -> "\n  " + number(task, "duration") + " ms task at " + number(task, "start") + " ms from " + task.get("source"))
+                    .collect(Collectors.joining());
+                if (!over.isEmpty())
+                {
+                    violations.add("Tasks blocked the page for over " + longTask.toMillis() + " ms:" + over);
+                }
+            }
+        }
+        return violations;
+    }
+
+    private static void addLimit(List<String> limits, String name, Duration limit)
+    {
+        if (limit != null)
+        {
+            limits.add(name + " within " + limit.toMillis() + " ms");
+        }
+    }
+
+    /**
+     * A late milestone is blamed on the resources that finished loading last before it
+     */
+    private static void checkTime(List<String> violations, String name, Duration limit, Map<String, Object> timings, String timing, List<Map<String, Object>> loaded)
+    {
+        if (limit == null)
+        {
+            return;
+        }
+        Long actual = BrowserTimings.millis(timings, timing);
+        //unknown doesn't count as within budget
+        if (actual == null)
+        {
+            violations.add(name + " has not happened, or is not reported by this browser");
+        }
+        else if (actual > limit.toMillis())
+        {
+            List<Map<String, Object>> before = loaded.stream().filter(resource -> number(resource, "end") <= actual).collect(Collectors.toList());
+            violations.add(name + " took " + actual + " ms, more than " + limit.toMillis() + " ms. Slowest resources before it:"
+                + describe(before, Comparator.comparing(resource -> -(number(resource, "end") - number(resource, "start")))));
+        }
+    }
+
+    private static String describe(List<Map<String, Object>> resources, Comparator<Map<String, Object>> worstFirst)
+    {
+        return resources.stream()
+            .sorted(worstFirst)
+            .limit(OFFENDERS_LIMIT)
+            .map(resource -> String.format("%n  %s (%s, %d bytes, %d-%d ms)", resource.get("name"), resource.get("type"),
+                number(resource, "transferSize"), number(resource, "start"), number(resource, "end")))
+            .collect(Collectors.joining());
+    }
+
+    private static long number(Map<String, Object> entry, String name)
+    {
+        Long value = BrowserTimings.millis(entry, name);
+        return value == null ? 0 : value;
+    }
+}
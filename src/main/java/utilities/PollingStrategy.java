@@ -0,0 +1,41 @@
+package utilities;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides how long a {@link WarningWait} sleeps before each poll of its condition
+ */
+@FunctionalInterface
+public interface PollingStrategy
+{
+    /**
+     * @param polls
+     *     How many times the condition has been checked so far (at least 1)
+     * @return how long to sleep before checking it again
+     */
+    Duration nextInterval(int polls);
+
+    static PollingStrategy fixed(Duration interval)
+    {
+        return polls -> interval;
+    }
+
+    /**
+     * Poll soon after the first check, for conditions that are true almost at once,
+     * then multiply the interval each poll up to max, so slow conditions don't flood the driver with commands.
+     * Each interval is randomly varied by up to +/- jitter (a fraction of the interval),
+     * so parallel waits don't all poll in lock step.
+     */
+    static PollingStrategy backoff(Duration first, double multiplier, Duration max, double jitter)
+    {
+        long firstMillis = first.toMillis();
+        long maxMillis = max.toMillis();
+        return polls ->
+        {
+            double interval = Math.min(firstMillis * Math.pow(multiplier, polls - 1), maxMillis);
+            double jittered = interval * (1 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1));
+            return Duration.ofMillis(Math.max(0, Math.min(Math.round(jittered), maxMillis)));
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package utilities;
+
+import java.text.DateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+
+/**
+ * Fixed-size ring of the most recent log messages from one thread, and how many of them were warnings.
+ * Adding a message doesn't allocate; slots are overwritten in place, and only formatted when the messages are read.
+ * A message can also be saved as a "{}" format and its arguments, so it is only formatted if it's read
+ * (and then shows the arguments as they are at that time).
+ * Not thread-safe: only the thread that owns the ring may use it, so no locking is needed.
+ */
+class RecentMessages
+{
+    //This isn't exactly the same format as the real log4j. But, whatever
+    private static final DateFormat dateFormat = DateFormat.getDateTimeInstance();
+
+    private final long[] timestamps;
+    private final Level[] levels;
+    private final String[] messages;
+    //for messages saved as a format; 0 for a message saved as is
+    private final int[] argCounts;
+    private final Object[] firstArgs;
+    private final Object[] secondArgs;
+    private final Thread[] threads;
+    private int next = 0;
+    private int size = 0;
+    private int warnings = 0;
+
+    RecentMessages(int capacity)
+    {
+        timestamps = new long[capacity];
+        levels = new Level[capacity];
+        messages = new String[capacity];
+        argCounts = new int[capacity];
+        firstArgs = new Object[capacity];
+        secondArgs = new Object[capacity];
+        threads = new Thread[capacity];
+    }
+
+    void add(Level level, String message)
+    {
+        add(level, message, 0, null, null);
+    }
+
+    /**
+     * @param argCount
+     *     How many of arg1 and arg2 format uses
+     */
+    void add(Level level, String format, int argCount, Object arg1, Object arg2)
+    {
+        timestamps[next] = System.currentTimeMillis();
+        levels[next] = level;
+        messages[next] = format;
+        argCounts[next] = argCount;
+        firstArgs[next] = arg1;
+        secondArgs[next] = arg2;
+        threads[next] = Thread.currentThread();
+        next = (next + 1) % messages.length;
+        if (size < messages.length)
+        {
+            size++;
+        }
+        if (level.isMoreSpecificThan(Level.WARN))
+        {
+            warnings++;
+        }
+    }
+
+    int getWarnings()
+    {
+        return warnings;
+    }
+
+    void clear()
+    {
+        Arrays.fill(messages, null);
+        Arrays.fill(firstArgs, null);
+        Arrays.fill(secondArgs, null);
+        Arrays.fill(threads, null);
+        next = 0;
+        size = 0;
+        warnings = 0;
+    }
+
+    /**
+     * Format each message, oldest first
+     */
+    void forEach(Consumer<String> action)
+    {
+        int first = (next - size + messages.length) % messages.length;
+        for (int i = 0; i < size; i++)
+        {
+            int slot = (first + i) % messages.length;
+            String timestamp;
+            synchronized (dateFormat)
+            {
+                timestamp = dateFormat.format(new Date(timestamps[slot]));
+            }
+            action.accept(String.format("[%-5s] %s [%s] %s - %s", levels[slot], timestamp, threads[slot].getName(), LogManager.class.getSimpleName(), message(slot)));
+        }
+    }
+
+    private String message(int slot)
+    {
+        switch (argCounts[slot])
+        {
+            case 0:
+                return messages[slot];
+            case 1:
+                return ParameterizedMessage.format(messages[slot], new Object[] {firstArgs[slot]});
+            default:
+                return ParameterizedMessage.format(messages[slot], new Object[] {firstArgs[slot], secondArgs[slot]});
+        }
+    }
+}
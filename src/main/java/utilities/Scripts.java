@@ -0,0 +1,115 @@
+package utilities;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.internal.WrapsDriver;
+
+/**
+ * Helpers for utilities that do their work in the browser with a single script call instead of several WebDriver commands.
+ */
+final class Scripts
+{
+    /**
+     * Javascript function find(root, kind, value) that returns the first element matching a {@link Locator}
+     * beneath root (a document or element), or null
+     */
+    static final String FIND_FUNCTION = "function find(root, kind, value) {"
+        + "  switch (kind) {"
+        + "    case 'id': return root.querySelector('#' + CSS.escape(value));"
+        + "    case 'cssSelector': return root.querySelector(value);"
+        + "    case 'className': return root.querySelector('.' + CSS.escape(value));"
+        + "    case 'name': return root.querySelector('[name=\"' + value.replace(/([\"\\\\])/g, '\\\\$1') + '\"]');"
+        + "    case 'tagName': return root.getElementsByTagName(value)[0] || null;"
+        + "    case 'xpath':"
+        + "      var node = document.evaluate(value, root, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+        + "      return node && node.nodeType === Node.ELEMENT_NODE ? node : null;"
+        + "  }"
+        + "  throw new Error('Unsupported locator ' + kind);"
+        + "}";
+
+    private Scripts()
+    {
+    }
+
+    /**
+     * A By that can be evaluated in the browser by {@link #FIND_FUNCTION}
+     */
+    static final class Locator
+    {
+        final String kind;
+        final String value;
+
+        private Locator(String kind, String value)
+        {
+            this.kind = kind;
+            this.value = value;
+        }
+    }
+
+    /**
+     * @return the by as a Locator, or null if it can only be evaluated by WebDriver (link text locators, custom By classes)
+     */
+    static Locator locator(By by)
+    {
+        //By doesn't expose its selector, but all the built in Bys describe themselves as "By.kind: value"
+        //this code is fragile because it depends on the toString format, but it's easy to fix
+        String description = by.toString();
+        if (!description.startsWith("By."))
+        {
+            return null;
+        }
+        int separator = description.indexOf(": ");
+        if (separator == -1)
+        {
+            return null;
+        }
+        String kind = description.substring("By.".length(), separator);
+        switch (kind)
+        {
+            case "id":
+            case "cssSelector":
+            case "className":
+            case "name":
+            case "tagName":
+            case "xpath":
+                return new Locator(kind, description.substring(separator + 2));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return a JavascriptExecutor for the browser that context belongs to, or null if there is none
+     */
+    static JavascriptExecutor executorFor(SearchContext context)
+    {
+        if (context instanceof JavascriptExecutor)
+        {
+            return (JavascriptExecutor) context;
+        }
+        if (context instanceof WrapsDriver)
+        {
+            WebDriver driver = ((WrapsDriver) context).getWrappedDriver();
+            if (driver instanceof JavascriptExecutor)
+            {
+                return (JavascriptExecutor) driver;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the element to search beneath, as a script argument (null means the whole document)
+     */
+    static Object rootArgument(SearchContext context)
+    {
+        return context instanceof WebDriver ? null : context;
+    }
+
+    static String firstLine(Throwable ex)
+    {
+        return String.valueOf(ex.getMessage()).split("\n", 2)[0];
+    }
+}
@@ -15,10 +15,11 @@ import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.FluentWait;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 public class Wait extends PageUtility
 {
+    // Poll quickly at first, since most conditions are true almost at once, then back off for slow ones
+    private static final PollingStrategy POLLING = PollingStrategy.backoff(Duration.of(20, ChronoUnit.MILLIS), 1.5, Duration.of(500, ChronoUnit.MILLIS), 0.2);
 
     public Wait(Page page)
     {
@@ -53,25 +54,39 @@ public class Wait extends PageUtility
         return getWaiter().withMessage(description).until(condition);
     }
 
-    public static <T> FluentWait<T> getWaiter(T context)
+    public static <T> WarningWait<T> getWaiter(T context)
     {
-        FluentWait<T> wait = new WarningWait<>(context);
-        wait.pollingEvery(Duration.of(150, ChronoUnit.MILLIS));
+        WarningWait<T> wait = new WarningWait<>(context);
+        wait.pollingWith(POLLING);
         wait.withTimeout(Duration.of(30, ChronoUnit.SECONDS)); // If an operation takes more than 30 seconds, that's a bug
         return wait;
     }
 
+    /**
+     * Wait for an element to be present.
+     * When possible, watches for the element in the browser, returning as soon as it is added to the page,
+     * rather than polling with findElement (see {@link ElementObserver}).
+     */
     public static WebElement waiter(By by, SearchContext context) throws TimeoutException
     {
         String description = "to find element " + by;
-        WebElement element = getWaiter(context).withMessage(description).ignoring(NoSuchElementException.class).until(context1 -> context1.findElement(by));
-        LogManager.trace("Found element " + LogManager.describeElement(element));
+        Function<SearchContext, WebElement> findElement = ElementObserver.finding(by, context);
+        WarningWait<SearchContext> wait = getWaiter(context);
+        if (findElement instanceof ElementObserver)
+        {
+            //the observer waits in the browser, so only sleep between attempts after it falls back to polling
+            ElementObserver observer = (ElementObserver) findElement;
+            wait.pollingWith(polls -> observer.isObserving() ? Duration.ZERO : POLLING.nextInterval(polls));
+        }
+        WebElement element = wait.withMessage(description).ignoring(NoSuchElementException.class).until(findElement);
+        LogManager.trace(() -> "Found element " + LogManager.describeElement(element));
         return element;
     }
     
     /**
      * Currently, this method always waits at least 1 second, which is enough time for most actions to complete,
      * but you should not call waitForPageLoaded unless you're actually waiting for a page to load.
+     * The 1 second is logged as a fixed sleep (see {@link #fixedSleep}).
      * This method is generally inferior to calling {@link #waitForPageLoaded(Runnable, RemoteWebDriver)} for real page loads
      * For fake page loads (JS-driven contents replacement), you should instead use until(ExpectedConditions.elementGone(root)), where root is an element that should be removed during the load (like {@link Navigate#via}
      * This method will be removed in the future
@@ -79,30 +94,49 @@ public class Wait extends PageUtility
     public static void waitForPageLoaded(RemoteWebDriver driver)
     {
         LogManager.warn("waitForPageLoaded(driver) is deprecated. Use waitForPageLoaded(Runnable, driver) instead.");
+        fixedSleep(Duration.of(1, ChronoUnit.SECONDS), "waitForPageLoaded(driver) can't tell when navigation starts");
         try
         {
-            Thread.sleep(1000);
-            WebDriverWait wait = new WebDriverWait(driver, 30);
-            wait.until(pageFinishedLoading);
+            PageLoadDetector.waitForDocumentReady(driver);
         }
-        catch (TimeoutException | InterruptedException ex)
+        catch (TimeoutException ex)
         {
             LogManager.error(">>> Timeout waiting for Page Load Request to complete.");
         }
     }
 
+    /**
+     * Sleep for a fixed time, for the rare cases where there's no way to detect the state we're waiting for.
+     * The time is logged and totalled in {@link WaitMetrics}, so the cost of these sleeps stays visible.
+     */
+    public static void fixedSleep(Duration duration, String reason)
+    {
+        LogManager.info("Sleeping " + duration.toMillis() + " ms: " + reason);
+        long start = System.currentTimeMillis();
+        try
+        {
+            Thread.sleep(duration.toMillis());
+        }
+        catch (InterruptedException e)
+        {
+            throw new RuntimeException(e);
+        }
+        finally
+        {
+            WaitMetrics.recordFixedSleep(System.currentTimeMillis() - start);
+        }
+    }
+
     /**
      * Perform doNavigate and then accurately wait for page loaded
      * Only works for *real* page loads, such as when logging in. In some products, most "page loads" are actually
      * just JS-driven replacement of the entire page content, where only the dimmer runs
      * Unlike {@link #waitForPageLoaded(RemoteWebDriver)}, will always wait until a page actually loads, will fail if no load happens, and won't wait too long.
+     * Returns as soon as the new page fires its load event (see {@link PageLoadDetector}).
      */
     public static void waitForPageLoaded(Runnable doNavigate, RemoteWebDriver driver)
     {
-        WebElement root = driver.findElement(By.xpath("/html"));
-        doNavigate.run();
-        getWaiter(driver).until(elementGone(root));
-        getWaiter(driver).until(pageFinishedLoading);
+        PageLoadDetector.navigateAndWaitForNewDocument(doNavigate, driver);
     }
 
     public static final ExpectedCondition<Boolean> pageFinishedLoading = driver -> ((JavascriptExecutor) driver).executeScript("return document.readyState").toString().equals("complete");
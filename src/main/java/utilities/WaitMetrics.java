@@ -0,0 +1,63 @@
+package utilities;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totals of how many polls and how much time {@link WarningWait}s and fixed sleeps took, across all threads
+ */
+public class WaitMetrics
+{
+    private static final LongAdder waits = new LongAdder();
+    private static final LongAdder timeouts = new LongAdder();
+    private static final LongAdder polls = new LongAdder();
+    private static final LongAdder waitMillis = new LongAdder();
+    private static final AtomicInteger maxPolls = new AtomicInteger();
+    private static final LongAdder fixedSleeps = new LongAdder();
+    private static final LongAdder fixedSleepMillis = new LongAdder();
+
+    private WaitMetrics()
+    {
+    }
+
+    static void record(int pollCount, long millis, boolean timedOut)
+    {
+        waits.increment();
+        polls.add(pollCount);
+        waitMillis.add(millis);
+        maxPolls.accumulateAndGet(pollCount, Math::max);
+        if (timedOut)
+        {
+            timeouts.increment();
+        }
+    }
+
+    static void recordFixedSleep(long millis)
+    {
+        fixedSleeps.increment();
+        fixedSleepMillis.add(millis);
+    }
+
+    public static long getFixedSleepMillis()
+    {
+        return fixedSleepMillis.sum();
+    }
+
+    public static long getWaits()
+    {
+        return waits.sum();
+    }
+
+    public static long getPolls()
+    {
+        return polls.sum();
+    }
+
+    public static String summary()
+    {
+        long waitCount = waits.sum();
+        return String.format("Waits: %d waits (%d timed out), %d polls (avg %.1f, max %d), avg %d ms; %d fixed sleeps totalling %d ms",
+            waitCount, timeouts.sum(), polls.sum(), waitCount == 0 ? 0.0 : (double) polls.sum() / waitCount, maxPolls.get(),
+            waitCount == 0 ? 0 : waitMillis.sum() / waitCount, fixedSleeps.sum(), fixedSleepMillis.sum());
+    }
+}
@@ -1,9 +1,11 @@
 package utilities;
 
+import com.google.common.base.Suppliers;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.support.ui.Clock;
 import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.Sleeper;
@@ -30,6 +32,15 @@ public class WarningWait<T> extends FluentWait<T>
         this(input, new SystemClock(), new WarningSleeper());
     }
 
+    /**
+     * Choose how long to sleep before each poll, instead of a fixed pollingEvery
+     */
+    public WarningWait<T> pollingWith(PollingStrategy strategy)
+    {
+        sleeper.strategy = strategy;
+        return this;
+    }
+
     @Override
     public FluentWait<T> withMessage(String message)
     {
@@ -46,10 +57,30 @@ public class WarningWait<T> extends FluentWait<T>
     @Override
     public <V> V until(Function<? super T, V> isTrue)
     {
-        String message = messageSupplier != null ? messageSupplier.get() : "for " + isTrue.toString();
-        LogManager.debug("Waiting " + message);
+        //only build the message if it's logged
+        Supplier<String> message = Suppliers.memoize(() -> messageSupplier != null ? messageSupplier.get() : "for " + isTrue.toString());
+        LogManager.debug(() -> "Waiting " + message.get());
         sleeper.startWarnTime(Duration.of(5, ChronoUnit.SECONDS), "5 seconds", message);
-        return super.until(isTrue);
+        long start = System.currentTimeMillis();
+        boolean timedOut = false;
+        try
+        {
+            return super.until(isTrue);
+        }
+        catch (TimeoutException ex)
+        {
+            //any other exception failed the wait rather than timing it out
+            timedOut = true;
+            throw ex;
+        }
+        finally
+        {
+            //every sleep is followed by another poll
+            int polls = sleeper.sleeps + 1;
+            long millis = System.currentTimeMillis() - start;
+            LogManager.trace(() -> "Finished waiting " + message.get() + " after " + polls + " polls in " + millis + " ms");
+            WaitMetrics.record(polls, millis, timedOut);
+        }
     }
 
     private static class WarningSleeper implements Sleeper
@@ -58,22 +89,26 @@ public class WarningWait<T> extends FluentWait<T>
         private final Clock clock = new SystemClock();
         private long warnTime = -1;
         private String durationDescription;
-        private String message = null;
+        private Supplier<String> message = null;
+        private PollingStrategy strategy = null;
+        private int sleeps = 0;
 
         @Override
         public void sleep(Duration duration) throws InterruptedException
         {
-            delegate.sleep(duration);
+            sleeps++;
+            delegate.sleep(strategy != null ? strategy.nextInterval(sleeps) : duration);
             if (warnTime != -1 && !clock.isNowBefore(warnTime))
             {
                 warnTime = -1;
-                LogManager.warn("Spent more than " + durationDescription + " waiting " + message);
+                LogManager.warn("Spent more than " + durationDescription + " waiting " + message.get());
             }
         }
 
-        public void startWarnTime(Duration duration, String durationDescription, String message)
+        public void startWarnTime(Duration duration, String durationDescription, Supplier<String> message)
         {
             warnTime = clock.laterBy(duration.toMillis());
+            sleeps = 0;
             this.durationDescription = durationDescription;
             this.message = message;
         }
@@ -4,6 +4,7 @@ import com.google.common.collect.Iterables;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.time.Duration;
 import java.util.Set;
 import org.junit.Assert;
 import org.openqa.selenium.Alert;
@@ -91,10 +92,11 @@ public class Window extends PageUtility
     public static void popUpWindow(String title, RemoteWebDriver driver)
     {
         String mainwindow = driver.getWindowHandle();
+        FrameContext frames = FrameContext.of(driver);
 
         for (String winHandle : driver.getWindowHandles())
         {
-            driver.switchTo().window(winHandle);
+            frames.window(winHandle);
 
             if (driver.getTitle().equals(title))
             {
@@ -107,7 +109,7 @@ public class Window extends PageUtility
                 System.out.println("Title of the page after - switchingTo: " + driver.getTitle());
             }
         }
-        driver.switchTo().window(mainwindow);
+        frames.window(mainwindow);
     }
 
     //Switch to the newest window (including old windows, if the newer window has closed)
@@ -115,9 +117,9 @@ public class Window extends PageUtility
     {
         LogManager.trace("Opening in new window");
         Set<String> windows = driver.getWindowHandles();
-        LogManager.debug(windows.size() + " windows detected");
+        LogManager.debug("{} windows detected", windows.size());
         //Selenium provides a LinkedHashSet that has a consistent iteration order
-        driver.switchTo().window(Iterables.getLast(windows));
+        FrameContext.of(driver).window(Iterables.getLast(windows));
     }
 
     public static void alertConfirm(RemoteWebDriver driver)
@@ -138,15 +140,8 @@ public class Window extends PageUtility
         }
         if (driver.getCapabilities().getBrowserName().equals("firefox"))
         {
-            LogManager.info("Waiting, to prevent UnhandledAlertException on navigation after accepting an alert (related to https://github.com/mozilla/geckodriver/issues/1247 )");
-            try
-            {
-                Thread.sleep(500); //driver bug, not possible to detect good state except by attempting to navigate (which is unacceptable)
-            }
-            catch (InterruptedException e)
-            {
-                throw new RuntimeException(e);
-            }
+            //driver bug, not possible to detect good state except by attempting to navigate (which is unacceptable)
+            Wait.fixedSleep(Duration.ofMillis(500), "to prevent UnhandledAlertException on navigation after accepting an alert (related to https://github.com/mozilla/geckodriver/issues/1247 )");
         }
     }
 
@@ -0,0 +1,69 @@
+package Tests.Benchmarks;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import utilities.LogManager;
+
+/**
+ * Checks that logging at a disabled level doesn't allocate, using the JVM's per-thread allocation counter.
+ * Doesn't need a browser.
+ * The result depends on the JIT eliminating allocations, so it only runs when asked for, with -Dtests.benchmarks=true.
+ */
+public class LoggingAllocationBenchmark
+{
+    private static final int WARMUP_CALLS = 200_000;
+    private static final int MEASURED_CALLS = 1_000_000;
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final Object argument = new Object();
+
+    @BeforeClass
+    public static void onlyWhenAskedFor()
+    {
+        Assume.assumeTrue("Benchmarks run with -Dtests.benchmarks=true", Boolean.getBoolean("tests.benchmarks"));
+    }
+
+    @Test
+    public void disabledSupplierDoesNotAllocate()
+    {
+        //a lambda that captures nothing is created once, so this measures only the logging call
+        assertDoesNotAllocate("trace(Supplier)", () -> LogManager.trace(() -> "never built " + System.nanoTime()));
+    }
+
+    @Test
+    public void disabledParameterizedDoesNotAllocate()
+    {
+        //disabled level, so saved as a recent message but not formatted
+        assertDoesNotAllocate("trace(String, Object)", () -> LogManager.trace("never formatted {}", argument));
+        LogManager.reset();
+    }
+
+    @Test
+    public void recentMessageBufferDoesNotAllocate()
+    {
+        //disabled level, but still saved as a recent message
+        assertDoesNotAllocate("trace(String)", () -> LogManager.trace("constant message"));
+        LogManager.reset();
+    }
+
+    private void assertDoesNotAllocate(String description, Runnable logCall)
+    {
+        for (int i = 0; i < WARMUP_CALLS; i++)
+        {
+            logCall.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++)
+        {
+            logCall.run();
+        }
+        double bytesPerCall = (double) (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+        LogManager.info(String.format("%s: %.3f bytes allocated per call", description, bytesPerCall));
+        assertTrue(description + " allocated " + bytesPerCall + " bytes per call", bytesPerCall < 1);
+    }
+}
@@ -5,6 +5,10 @@ import org.junit.runner.Result;
 import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunListener;
 
+/**
+ * RunNotifier synchronizes calls to listeners that aren't marked @ThreadSafe, so this is safe to use with parallel tests.
+ * Each message includes the thread, to tell apart tests that are running at the same time.
+ */
 public class JUnitExecutionListener extends RunListener
 {
     public void testRunStarted(Description description) throws Exception {
@@ -16,22 +20,26 @@ public class JUnitExecutionListener extends RunListener
     }
 
     public void testStarted(Description description) throws Exception {
-        System.out.println("Starting: " + description.getMethodName());
+        System.out.println("Starting: " + describe(description));
     }
 
     public void testFinished(Description description) throws Exception {
-        System.out.println("Finished: " + description.getMethodName());
+        System.out.println("Finished: " + describe(description));
     }
 
     public void testFailure(Failure failure) throws Exception {
-        System.out.println("Failed: " + failure.getDescription().getMethodName());
+        System.out.println("Failed: " + describe(failure.getDescription()));
     }
 
     public void testAssumptionFailure(Failure failure) {
-        System.out.println("Failed: " + failure.getDescription().getMethodName());
+        System.out.println("Failed: " + describe(failure.getDescription()));
     }
 
     public void testIgnored(Description description) throws Exception {
-        System.out.println("Ignored: " + description.getMethodName());
+        System.out.println("Ignored: " + describe(description));
+    }
+
+    private static String describe(Description description) {
+        return description.getMethodName() + " [" + Thread.currentThread().getName() + "]";
     }
 }
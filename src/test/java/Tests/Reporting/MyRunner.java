@@ -1,14 +1,43 @@
 package Tests.Reporting;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerScheduler;
 
 public class MyRunner extends BlockJUnit4ClassRunner
 {
+    // Number of test methods to run at once, each in its own browser session; override with -Dtests.workers=N
+    // To also run test classes at the same time, use -Dtests.forks=N, which runs them in separate JVMs
+    public static final int WORKERS = Integer.getInteger("tests.workers", 1);
+
+    private static ExecutorService workerPool;
+
     public MyRunner(Class<?> klass) throws InitializationError
     {
         super(klass);
+        if (WORKERS > 1)
+        {
+            setScheduler(new ParallelScheduler());
+        }
+        try
+        {
+            //run the test class's static initializers now (such as BaseTest starting browser sessions in the background)
+            //rather than when its first test starts
+            Class.forName(klass.getName(), true, klass.getClassLoader());
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new InitializationError(e);
+        }
     }
 
     @Override public void run(RunNotifier notifier){
@@ -16,4 +45,59 @@ public class MyRunner extends BlockJUnit4ClassRunner
         notifier.fireTestRunStarted(getDescription());
         super.run(notifier);
     }
+
+    private static synchronized ExecutorService getWorkerPool()
+    {
+        if (workerPool == null)
+        {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory threadFactory = runnable ->
+            {
+                Thread thread = new Thread(runnable, "test-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            workerPool = Executors.newFixedThreadPool(WORKERS, threadFactory);
+        }
+        return workerPool;
+    }
+
+    /**
+     * Runs each test method on a shared pool of worker threads, and waits for all of this class's methods before
+     * running its @AfterClass methods.
+     * Each test method runs start to finish (rules, @Before, test, @After) on a single worker,
+     * so the listener still sees started/finished in order for each test.
+     */
+    private static class ParallelScheduler implements RunnerScheduler
+    {
+        private final List<Future<?>> children = new ArrayList<>();
+
+        @Override
+        public void schedule(Runnable childStatement)
+        {
+            children.add(getWorkerPool().submit(childStatement));
+        }
+
+        @Override
+        public void finished()
+        {
+            try
+            {
+                for (Future<?> child : children)
+                {
+                    child.get();
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            catch (ExecutionException e)
+            {
+                //test failures are reported to the notifier by the child itself, so this is a bug in the runner
+                throw new RuntimeException(e.getCause());
+            }
+        }
+    }
 }
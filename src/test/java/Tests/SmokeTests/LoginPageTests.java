@@ -1,26 +1,74 @@
 package Tests.SmokeTests;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import Tests.launch.BaseTest;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
-import pageObjects.HomePageObjects;
+import org.openqa.selenium.Cookie;
 import pageObjects.LoginPageObjects;
+import utilities.Navigate;
 
 public class LoginPageTests extends BaseTest
 {
+    //the browser state left by signUp; increase the version when signUp changes
+    private static final String SIGNED_UP = "signedUpUser";
+    private static final int SIGNED_UP_VERSION = 1;
+
+    @Override
+    protected String startingUrl()
+    {
+        return null;
+    }
+
     /*This is an example of automating to create a new user.
     This test skips selecting the captcha verification
      */
     @Test
     public void createNewUser()
     {
-        HomePageObjects homePageObjects = new HomePageObjects(driver);
-        LoginPageObjects loginPageObjects = homePageObjects.loginPageLink();
+        signUp();
+    }
+
+    /*Tests that need a signed up user restore the state signUp left instead of filling in the form again.
+    Only the first of them in the JVM (or after the snapshot goes stale) runs the UI steps.
+    This checks that a browser with none of the site's state gets the signed up user's cookies back from the snapshot
+     */
+    @Test
+    public void signedUpStateIsRestoredInsteadOfRepeated()
+    {
+        restoreOrCapture(SIGNED_UP, SIGNED_UP_VERSION, this::signUp);
+        Set<Cookie> signedUp = driver.manage().getCookies();
+        assertFalse("Signing up should leave the site's session cookies", signedUp.isEmpty());
+
+        //as a new session would be
+        driver.manage().deleteAllCookies();
+        driver.executeScript("localStorage.clear(); sessionStorage.clear();");
+
+        AtomicInteger signUps = new AtomicInteger();
+        boolean restored = restoreOrCapture(SIGNED_UP, SIGNED_UP_VERSION, () ->
+        {
+            signUps.incrementAndGet();
+            signUp();
+        });
+        assertTrue("The signed up state should be restored from the snapshot", restored);
+        assertEquals("The sign up form should not be filled in again", 0, signUps.get());
+        Set<Cookie> cookies = driver.manage().getCookies();
+        for (Cookie cookie : signedUp)
+        {
+            assertTrue("Cookie " + cookie.getName() + " should be restored", cookies.stream()
+                .anyMatch(restoredCookie -> restoredCookie.getName().equals(cookie.getName()) && restoredCookie.getValue().equals(cookie.getValue())));
+        }
+    }
+
+    private void signUp()
+    {
+        LoginPageObjects loginPageObjects = Navigate.directTo(LoginPageObjects.class, driver);
         loginPageObjects.createAccountLink();
-        loginPageObjects.enterFirstName();
-        loginPageObjects.enterLastName();
-        loginPageObjects.enterEmail();
-        loginPageObjects.enterPassword();
-        loginPageObjects.acceptUserAgreement();
-        loginPageObjects.signUpBtn();
+        loginPageObjects.fillSignUpForm();
+        loginPageObjects.submitSignUp();
     }
 }
@@ -2,37 +2,62 @@ package Tests.SmokeTests;
 
 import Tests.launch.BaseTest;
 import org.junit.Test;
+import pageObjects.BigPageObjects;
 import pageObjects.HomePageObjects;
+import pageObjects.LandingPageObjects;
+import pageObjects.LoginPageObjects;
+import pageObjects.PricingPageObjects;
+import utilities.Navigate;
 
 
+/**
+ * Each page check loads its page directly, instead of loading the home page and clicking through to it;
+ * homePageLinksCheck checks that the home page's links still lead to those pages
+ */
 public class healthCheckTests extends BaseTest
 {
-    public HomePageObjects declareHomePage()
+    @Override
+    protected String startingUrl()
     {
-        return new HomePageObjects(driver);
+        return null;
+    }
+
+    @Test
+    public void homePageCheck()
+    {
+        Navigate.directTo(HomePageObjects.class, driver);
+    }
+
+    @Test
+    public void homePageLinksCheck()
+    {
+        Navigate.directTo(HomePageObjects.class, driver).landingPageLink();
+        Navigate.directTo(HomePageObjects.class, driver).bigPageLink();
+        Navigate.directTo(HomePageObjects.class, driver).pricingPageLink();
+        Navigate.directTo(HomePageObjects.class, driver).loginPageLink();
     }
 
     @Test
     public void landingPageCheck()
     {
-        declareHomePage().landingPageLink();
+        Navigate.directTo(LandingPageObjects.class, driver);
     }
 
     @Test
     public void bigPageCheck()
     {
-        declareHomePage().bigPageLink();
+        Navigate.directTo(BigPageObjects.class, driver);
     }
 
     @Test
     public void pricingPageCheck()
     {
-        declareHomePage().pricingPageLink();
+        Navigate.directTo(PricingPageObjects.class, driver);
     }
 
     @Test
     public void loginPageCheck()
     {
-        declareHomePage().loginPageLink();
+        Navigate.directTo(LoginPageObjects.class, driver);
     }
 }
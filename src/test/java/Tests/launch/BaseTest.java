@@ -1,55 +1,130 @@
 package Tests.launch;
 
 import Tests.Reporting.MyRunner;
-import org.junit.After;
+import java.time.Duration;
 import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.Rule;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
 import org.junit.runner.RunWith;
-import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.remote.RemoteWebDriver;
+import utilities.BrowserStateStore;
+import utilities.ClickEngine;
+import utilities.ElementCache;
+import utilities.FrameContext;
 import utilities.LogManager;
+import utilities.WaitMetrics;
 
 @RunWith(MyRunner.class)
 public class BaseTest
 {
     private static final LocalTestEnvironment testEnvironment;
+    private static final BrowserStateStore browserStates = new BrowserStateStore(Duration.ofMinutes(Long.getLong("tests.stateTtlMinutes", 30)));
 
     static
     {
         LogManager.info("Detected local (dev machine) test environment");
         testEnvironment = LocalTestEnvironment.chrome();
+        //MyRunner initializes test classes while JUnit is still discovering tests, so sessions start while that finishes
+        testEnvironment.prewarm();
+        //sessions stay warm across test classes, so only quit them when the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(testEnvironment::destroySharedResources));
     }
 
     protected RemoteWebDriver driver;
 
+    /**
+     * Return the driver to the pool once the test is over, including its @After methods.
+     * Sessions from failed tests are discarded rather than reused, and the test's recent log messages are displayed.
+     */
+    @Rule
+    public final TestWatcher returnDriver = new TestWatcher()
+    {
+        private boolean failed = false;
+
+        @Override
+        protected void starting(Description description)
+        {
+            LogManager.reset();
+        }
+
+        @Override
+        protected void failed(Throwable e, Description description)
+        {
+            failed = true;
+            LogManager.dumpRecentMessages();
+        }
+
+        @Override
+        protected void finished(Description description)
+        {
+            if (driver != null)
+            {
+                getTestEnvironment().returnDriver(driver, failed, description.getDisplayName());
+                driver = null;
+            }
+        }
+    };
+
     private static LocalTestEnvironment getTestEnvironment()
     {
         return testEnvironment;
     }
 
+    /**
+     * The page each test starts on. Override to return null for tests that go straight to their page with Navigate.directTo,
+     * so they don't pay for loading the home page first.
+     */
+    protected String startingUrl()
+    {
+        return "https://www.ultimateqa.com/automation/";
+    }
+
+    /**
+     * Restore the browser state (cookies, localStorage, sessionStorage) that flow produced, or run flow and snapshot its result
+     * if there is no current snapshot for key. Either way, navigate to the page you want afterwards.
+     * Use it for setup flows like logging in, whose result doesn't depend on the test.
+     *
+     * @param version
+     *     Increase this whenever flow changes, so snapshots of the old flow aren't used
+     * @return true if the state was restored, false if flow ran
+     */
+    protected boolean restoreOrCapture(String key, int version, Runnable flow)
+    {
+        if (browserStates.restore(key, version, driver))
+        {
+            return true;
+        }
+        flow.run();
+        browserStates.capture(key, version, driver);
+        return false;
+    }
+
     public void destroySharedResources()
     {
-        destroySharedDriver();
+        getTestEnvironment().destroySharedResources();
     }
 
     @Before
     public void setUp()
     {
-        driver = new ChromeDriver();
+        driver = getTestEnvironment().leaseDriver();
         LogManager.info("### Test Begins ###");
-        driver.get("https://www.ultimateqa.com/automation/");
-        LogManager.info(">>> Launching browser and navigating to starting URL");
-    }
-
-    @After
-    public void tearDown()
-    {
-        driver.quit();
+        if (startingUrl() != null)
+        {
+            driver.get(startingUrl());
+            LogManager.info(">>> Launching browser and navigating to starting URL");
+        }
     }
 
     @AfterClass
-    public static void destroySharedDriver()
+    public static void reportStatistics()
     {
-        getTestEnvironment().destroySharedResources();
+        getTestEnvironment().reportDriverPool();
+        LogManager.info(WaitMetrics.summary());
+        LogManager.info(ClickEngine.summary());
+        LogManager.info(ElementCache.summary());
+        LogManager.info(FrameContext.summary());
     }
-}
\ No newline at end of file
+}
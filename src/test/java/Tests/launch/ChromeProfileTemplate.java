@@ -0,0 +1,274 @@
+package Tests.launch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import utilities.LogManager;
+import utilities.Wait;
+
+/**
+ * Starts Chrome sessions from copies of a prepared profile (user-data-dir), so first-run setup and component downloads
+ * happen once, when the template is prepared, instead of in every new session.
+ * Each session gets a private copy, since Chrome writes to its profile files in place (so hard links to the template are not safe);
+ * where the filesystem supports it, the copy shares blocks with the template until they are written (cp --reflink=auto).
+ * Copies are made next to the template, so they are on its filesystem rather than in the system temp directory (often a different one, or tmpfs).
+ * The copy is deleted after the session quits.
+ * The template is kept between runs; delete its directory to prepare a new one (such as after a Chrome update).
+ */
+public class ChromeProfileTemplate
+{
+    // Directory of the profile template; set with -DdriverPool.profileTemplate=path to start Chrome sessions from copies of it
+    private static final String TEMPLATE = System.getProperty("driverPool.profileTemplate");
+    // How long to let Chrome finish its first-run work before saving the template
+    private static final Duration WARM_UP = Duration.ofSeconds(Long.getLong("driverPool.profileWarmUpSeconds", 10));
+    // Created once the template is complete; holds how long the fresh profile took to start, to compare against copies
+    private static final String READY_MARKER = ".template-ready";
+
+    private static final Map<RemoteWebDriver, Path> copies = new ConcurrentHashMap<>();
+    private static final LongAdder starts = new LongAdder();
+    private static final LongAdder startNanos = new LongAdder();
+    private static final LongAdder copyNanos = new LongAdder();
+
+    private static Path template;
+    private static long freshStartMillis;
+
+    private ChromeProfileTemplate()
+    {
+    }
+
+    public static boolean isEnabled()
+    {
+        return TEMPLATE != null;
+    }
+
+    /**
+     * Create a Chrome session with a copy of the template as its profile, preparing the template first if needed.
+     * Call {@link #deleteCopy} after the session quits.
+     */
+    public static RemoteWebDriver chrome(ChromeOptions options)
+    {
+        Path source = prepare();
+        long start = System.nanoTime();
+        Path copy = copy(source);
+        long copied = System.nanoTime();
+        options.addArguments("--user-data-dir=" + copy);
+        RemoteWebDriver driver;
+        try
+        {
+            driver = DriverServices.chrome(options);
+        }
+        catch (RuntimeException ex)
+        {
+            delete(copy);
+            throw ex;
+        }
+        copies.put(driver, copy);
+        starts.increment();
+        startNanos.add(System.nanoTime() - start);
+        copyNanos.add(copied - start);
+        return driver;
+    }
+
+    /**
+     * Delete the profile copy of a session that has quit
+     */
+    public static void deleteCopy(RemoteWebDriver driver)
+    {
+        Path copy = copies.remove(driver);
+        if (copy != null)
+        {
+            delete(copy);
+        }
+    }
+
+    public static void report()
+    {
+        long count = starts.sum();
+        if (count == 0)
+        {
+            return;
+        }
+        LogManager.info(String.format("Chrome profile template: fresh profile started in %d ms; %d sessions started from the template in avg %d ms (including %d ms to copy it)",
+            freshStartMillis, count, TimeUnit.NANOSECONDS.toMillis(startNanos.sum() / count), TimeUnit.NANOSECONDS.toMillis(copyNanos.sum() / count)));
+    }
+
+    /**
+     * Prepare the template, unless this or another test JVM already has
+     */
+    private static synchronized Path prepare()
+    {
+        if (template != null)
+        {
+            return template;
+        }
+        Path directory = Paths.get(TEMPLATE).toAbsolutePath();
+        Path marker = directory.resolve(READY_MARKER);
+        try
+        {
+            Files.createDirectories(directory);
+            //parallel forks share the template, so only one of them prepares it
+            try (FileChannel lockFile = FileChannel.open(directory.resolveSibling(directory.getFileName() + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = lockFile.lock())
+            {
+                if (!Files.exists(marker))
+                {
+                    long fresh = initialize(directory);
+                    removeLocks(directory);
+                    Files.write(marker, Long.toString(fresh).getBytes(StandardCharsets.UTF_8));
+                }
+                freshStartMillis = Long.parseLong(new String(Files.readAllBytes(marker), StandardCharsets.UTF_8).trim());
+            }
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException("Could not prepare Chrome profile template in " + directory, ex);
+        }
+        template = directory;
+        return template;
+    }
+
+    /**
+     * @return how long Chrome took to start with a fresh profile
+     */
+    private static long initialize(Path directory)
+    {
+        LogManager.info("Preparing Chrome profile template in " + directory);
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--user-data-dir=" + directory);
+        long start = System.nanoTime();
+        RemoteWebDriver driver = DriverServices.chrome(options);
+        long fresh = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        try
+        {
+            Wait.fixedSleep(WARM_UP, "to let Chrome finish first-run setup and component downloads before saving the profile template");
+        }
+        finally
+        {
+            driver.quit();
+        }
+        return fresh;
+    }
+
+    private static Path copy(Path source)
+    {
+        try
+        {
+            Path copy = Files.createTempDirectory(source.getParent(), "chrome-profile-");
+            if (copyWithCp(source, copy))
+            {
+                //templates prepared before their locks were removed still have them
+                removeLocks(copy);
+            }
+            else
+            {
+                copyTree(source, copy);
+            }
+            return copy;
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException("Could not copy Chrome profile template " + source, ex);
+        }
+    }
+
+    /**
+     * Chrome's lock files (symbolic links) are left behind if it doesn't shut down cleanly,
+     * and a copy that has them may be taken for a profile that is already in use
+     */
+    private static void removeLocks(Path directory) throws IOException
+    {
+        try (Stream<Path> entries = Files.list(directory))
+        {
+            for (Path path : entries.filter(ChromeProfileTemplate::isLock).collect(Collectors.toList()))
+            {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static boolean isLock(Path path)
+    {
+        return path.getFileName().toString().startsWith("Singleton");
+    }
+
+    /**
+     * @return false if cp is not available, or doesn't support --reflink (such as on macOS)
+     */
+    private static boolean copyWithCp(Path source, Path copy)
+    {
+        try
+        {
+            Process cp = new ProcessBuilder("cp", "-a", "--reflink=auto", source + "/.", copy.toString()).redirectErrorStream(true).start();
+            cp.getInputStream().close();
+            return cp.waitFor() == 0;
+        }
+        catch (IOException ex)
+        {
+            return false;
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static void copyTree(Path source, Path copy) throws IOException
+    {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(source))
+        {
+            paths = walk.collect(Collectors.toList());
+        }
+        for (Path path : paths)
+        {
+            //see removeLocks
+            if (isLock(path))
+            {
+                continue;
+            }
+            Path target = copy.resolve(source.relativize(path).toString());
+            if (Files.isDirectory(path))
+            {
+                Files.createDirectories(target);
+            }
+            else
+            {
+                Files.copy(path, target, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private static void delete(Path directory)
+    {
+        try (Stream<Path> walk = Files.walk(directory))
+        {
+            for (Path path : walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+            {
+                Files.deleteIfExists(path);
+            }
+        }
+        catch (IOException ex)
+        {
+            LogManager.warn("Could not delete Chrome profile copy " + directory + ": " + ex.getMessage());
+        }
+    }
+}
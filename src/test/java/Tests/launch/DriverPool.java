@@ -0,0 +1,347 @@
+package Tests.launch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import utilities.LogManager;
+
+/**
+ * Keeps up to maxSize warm browser sessions and leases them out to tests, one test per session at a time.
+ * A session is returned to the pool only if its test passed and it could be reset to a blank state (see {@link SessionReset});
+ * otherwise it is quit and a new one is started on demand.
+ * Sessions can also be started ahead of time in the background with {@link #prewarmAsync}, so the first tests don't wait for a browser to start.
+ * Safe to use from multiple threads.
+ */
+public class DriverPool
+{
+    private static final long LEASE_TIMEOUT_SECONDS = 300; // If no session frees up in 5 minutes, something is stuck
+    private static final long LEASE_POLL_MILLIS = 100;
+    private static final long PREWARM_SHUTDOWN_SECONDS = 60; // Longer than a browser should take to start
+
+    private final Supplier<RemoteWebDriver> constructDriver;
+    private final Consumer<RemoteWebDriver> destroyDriver;
+    private final int maxSize;
+    private final BlockingQueue<RemoteWebDriver> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger liveSessions = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder leaseWaitNanos = new LongAdder();
+    private final AtomicLong maxLeaseWaitNanos = new AtomicLong();
+    private final AtomicInteger pendingPrewarms = new AtomicInteger();
+    private final LongAdder prewarmed = new LongAdder();
+    //wall-clock times, since prewarms run in parallel, and so may leases
+    private final AtomicLong prewarmStartNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong prewarmEndNanos = new AtomicLong(Long.MIN_VALUE);
+    private long waitedForPrewarmNanos = 0;
+    private int leasesWaitingForPrewarm = 0;
+    private long waitingForPrewarmSince;
+    private volatile ExecutorService prewarmer;
+    //guarded by idle, so no session is added to the idle queue after close drains it
+    private volatile boolean closed = false;
+
+    /**
+     * @param constructDriver
+     *     Starts a new browser session
+     * @param destroyDriver
+     *     Quits a browser session that will not be used again
+     * @param maxSize
+     *     The maximum number of sessions alive at once (leased or idle)
+     */
+    public DriverPool(Supplier<RemoteWebDriver> constructDriver, Consumer<RemoteWebDriver> destroyDriver, int maxSize)
+    {
+        if (maxSize < 1)
+        {
+            throw new IllegalArgumentException("Driver pool size must be at least 1, was " + maxSize);
+        }
+        this.constructDriver = constructDriver;
+        this.destroyDriver = destroyDriver;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Take an idle session if there is one, start a new one if the pool has room, or else wait for a session to be returned.
+     */
+    public RemoteWebDriver lease()
+    {
+        long start = System.nanoTime();
+        boolean prewarming = pendingPrewarms.get() > 0;
+        if (prewarming)
+        {
+            waitingForPrewarm(true);
+        }
+        try
+        {
+            RemoteWebDriver driver = idle.poll();
+            if (driver != null)
+            {
+                hits.increment();
+                return driver;
+            }
+            long deadline = start + TimeUnit.SECONDS.toNanos(LEASE_TIMEOUT_SECONDS);
+            while (System.nanoTime() < deadline)
+            {
+                if (reserveSession())
+                {
+                    misses.increment();
+                    return startSession();
+                }
+                //a discarded session frees a slot without adding to the idle queue, so poll instead of blocking forever
+                driver = idle.poll(LEASE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (driver != null)
+                {
+                    hits.increment();
+                    return driver;
+                }
+            }
+            throw new IllegalStateException("No browser session was returned to the pool within " + LEASE_TIMEOUT_SECONDS + " seconds");
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        finally
+        {
+            recordLeaseWait(System.nanoTime() - start);
+            if (prewarming)
+            {
+                waitingForPrewarm(false);
+            }
+        }
+    }
+
+    /**
+     * Start up to count sessions on background threads and add them to the idle sessions, without exceeding the pool's size.
+     * Leases wait for these sessions rather than starting more than the pool allows.
+     */
+    public void prewarmAsync(int count)
+    {
+        for (int i = 0; i < count && reserveSession(); i++)
+        {
+            pendingPrewarms.incrementAndGet();
+            prewarmStartNanos.accumulateAndGet(System.nanoTime(), Math::min);
+            getPrewarmer().execute(() ->
+            {
+                try
+                {
+                    RemoteWebDriver driver = startSession();
+                    prewarmed.increment();
+                    prewarmEndNanos.accumulateAndGet(System.nanoTime(), Math::max);
+                    if (!offerIdle(driver))
+                    {
+                        discard(driver);
+                    }
+                }
+                catch (RuntimeException ex)
+                {
+                    //a lease will start a session itself instead
+                    LogManager.warn("Failed to prewarm browser session: " + ex.getMessage().split("\n", 2)[0]);
+                }
+                finally
+                {
+                    pendingPrewarms.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Give a session back to the pool.
+     *
+     * @param discard
+     *     true if the session must not be reused, such as when the test using it failed (so its state is unknown)
+     */
+    public void release(RemoteWebDriver driver, boolean discard)
+    {
+        if (closed)
+        {
+            discard(driver);
+        }
+        else if (discard)
+        {
+            LogManager.debug("Discarding browser session");
+            discard(driver);
+        }
+        else if (!SessionReset.reset(driver))
+        {
+            LogManager.warn("Discarding browser session that could not be reset");
+            discard(driver);
+        }
+        else if (!offerIdle(driver))
+        {
+            //the pool closed during the reset
+            discard(driver);
+        }
+    }
+
+    /**
+     * Quit every idle session, after waiting for sessions still being prewarmed. Sessions still leased are quit when they are released.
+     */
+    public void close()
+    {
+        synchronized (idle)
+        {
+            closed = true;
+        }
+        if (prewarmer != null)
+        {
+            //prewarms finishing from now on quit their own sessions
+            prewarmer.shutdown();
+            try
+            {
+                if (!prewarmer.awaitTermination(PREWARM_SHUTDOWN_SECONDS, TimeUnit.SECONDS))
+                {
+                    LogManager.warn("Browser sessions were still being prewarmed " + PREWARM_SHUTDOWN_SECONDS + " seconds after the pool closed");
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<RemoteWebDriver> drivers = new ArrayList<>();
+        idle.drainTo(drivers);
+        drivers.forEach(this::discard);
+    }
+
+    public void report()
+    {
+        long leaseCount = leases.sum();
+        LogManager.info(String.format("Driver pool: %d live sessions (max %d), %d hits, %d misses, %d discarded; lease wait avg %d ms, max %d ms",
+            liveSessions.get(), maxSize, hits.sum(), misses.sum(), discarded.sum(),
+            leaseCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(leaseWaitNanos.sum() / leaseCount),
+            TimeUnit.NANOSECONDS.toMillis(maxLeaseWaitNanos.get())));
+        if (prewarmed.sum() > 0)
+        {
+            //the part of the prewarming period when no test was waiting in lease
+            long prewarmingNanos = Math.max(0, prewarmEndNanos.get() - prewarmStartNanos.get());
+            long hiddenNanos;
+            synchronized (this)
+            {
+                hiddenNanos = Math.max(0, prewarmingNanos - waitedForPrewarmNanos);
+            }
+            LogManager.info(String.format("Driver pool: %d sessions prewarmed over %d ms, %d ms of it while no test was waiting for a session",
+                prewarmed.sum(), TimeUnit.NANOSECONDS.toMillis(prewarmingNanos), TimeUnit.NANOSECONDS.toMillis(hiddenNanos)));
+        }
+        LogManager.info(SessionReset.summary());
+    }
+
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    private synchronized ExecutorService getPrewarmer()
+    {
+        if (prewarmer == null)
+        {
+            AtomicInteger count = new AtomicInteger();
+            prewarmer = Executors.newFixedThreadPool(maxSize, runnable ->
+            {
+                Thread thread = new Thread(runnable, "driver-prewarm-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return prewarmer;
+    }
+
+    /**
+     * @return false if the pool has closed, so the session must be discarded instead
+     */
+    private boolean offerIdle(RemoteWebDriver driver)
+    {
+        synchronized (idle)
+        {
+            return !closed && idle.offer(driver);
+        }
+    }
+
+    /**
+     * Track the wall-clock time during which at least one lease was waiting while sessions were being prewarmed
+     */
+    private synchronized void waitingForPrewarm(boolean waiting)
+    {
+        long now = System.nanoTime();
+        if (waiting && leasesWaitingForPrewarm++ == 0)
+        {
+            waitingForPrewarmSince = now;
+        }
+        else if (!waiting && --leasesWaitingForPrewarm == 0)
+        {
+            waitedForPrewarmNanos += now - waitingForPrewarmSince;
+        }
+    }
+
+    private boolean reserveSession()
+    {
+        while (true)
+        {
+            int live = liveSessions.get();
+            if (live >= maxSize)
+            {
+                return false;
+            }
+            if (liveSessions.compareAndSet(live, live + 1))
+            {
+                return true;
+            }
+        }
+    }
+
+    private RemoteWebDriver startSession()
+    {
+        try
+        {
+            return constructDriver.get();
+        }
+        catch (RuntimeException ex)
+        {
+            liveSessions.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    private void discard(RemoteWebDriver driver)
+    {
+        discarded.increment();
+        try
+        {
+            destroyDriver.accept(driver);
+        }
+        catch (WebDriverException ex)
+        {
+            LogManager.warn("Failed to quit browser session: " + ex.getMessage().split("\n", 2)[0]);
+        }
+        finally
+        {
+            liveSessions.decrementAndGet();
+        }
+    }
+
+    private void recordLeaseWait(long nanos)
+    {
+        leases.increment();
+        leaseWaitNanos.add(nanos);
+        maxLeaseWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+}
@@ -0,0 +1,159 @@
+package Tests.launch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.net.PortProber;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import utilities.LogManager;
+
+/**
+ * Starts browser driver executables and creates sessions with them.
+ * chromedriver serves any number of sessions, so it is started once per JVM (per Gradle test fork) and shared by every Chrome session,
+ * instead of starting and stopping an executable for each session.
+ * Each fork uses its own range of ports (see {@link #port}), so forks don't race each other for the same port.
+ * geckodriver only serves one session at a time, so each Firefox session still gets its own geckodriver, stopped when the session quits.
+ */
+public class DriverServices
+{
+    // First port for driver services; override with -Dtests.driverPortBase=N
+    private static final int PORT_BASE = Integer.getInteger("tests.driverPortBase", 9515);
+    private static final int PORTS_PER_FORK = 10;
+
+    private static final LongAdder serviceStarts = new LongAdder();
+    private static final LongAdder serviceStartNanos = new LongAdder();
+    private static final LongAdder sessions = new LongAdder();
+    private static final LongAdder sessionNanos = new LongAdder();
+
+    private static ChromeDriverService chromeService;
+
+    private DriverServices()
+    {
+    }
+
+    /**
+     * Create a Chrome session with the shared chromedriver, starting it if needed.
+     * The session is a plain RemoteWebDriver, because ChromeDriver stops its service when it quits.
+     */
+    public static RemoteWebDriver chrome(ChromeOptions options)
+    {
+        ChromeDriverService service = chromeService();
+        return timeSession(() -> new RemoteWebDriver(service.getUrl(), options));
+    }
+
+    /**
+     * Create a Firefox session with its own geckodriver, which is stopped when the session quits
+     */
+    public static RemoteWebDriver firefox(FirefoxOptions options)
+    {
+        GeckoDriverService service = new GeckoDriverService.Builder().usingAnyFreePort().build();
+        start(service::start, "geckodriver");
+        try
+        {
+            return timeSession(() -> new FirefoxDriver(service, options));
+        }
+        catch (RuntimeException ex)
+        {
+            service.stop();
+            throw ex;
+        }
+    }
+
+    /**
+     * Stop the shared services. Sessions using them must already have quit.
+     */
+    public static synchronized void stop()
+    {
+        if (chromeService != null)
+        {
+            chromeService.stop();
+            chromeService = null;
+        }
+    }
+
+    public static void report()
+    {
+        long starts = serviceStarts.sum();
+        long created = sessions.sum();
+        LogManager.info(String.format("Driver services: %d started, avg %d ms to start; %d sessions created, avg %d ms to create",
+            starts, starts == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(serviceStartNanos.sum() / starts),
+            created, created == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(sessionNanos.sum() / created)));
+    }
+
+    private static synchronized ChromeDriverService chromeService()
+    {
+        if (chromeService == null || !chromeService.isRunning())
+        {
+            ChromeDriverService service = new ChromeDriverService.Builder().usingPort(port()).build();
+            start(service::start, "chromedriver");
+            chromeService = service;
+        }
+        return chromeService;
+    }
+
+    /**
+     * The first free port in this fork's range.
+     * Gradle numbers its test JVMs with the org.gradle.test.worker property; outside Gradle, any free port is used.
+     */
+    private static int port()
+    {
+        String worker = System.getProperty("org.gradle.test.worker");
+        if (worker == null)
+        {
+            return PortProber.findFreePort();
+        }
+        int first = PORT_BASE + (int) (Long.parseLong(worker) % 100) * PORTS_PER_FORK;
+        for (int port = first; port < first + PORTS_PER_FORK; port++)
+        {
+            try (ServerSocket ignored = new ServerSocket(port))
+            {
+                return port;
+            }
+            catch (IOException ex)
+            {
+                //in use, try the next one
+            }
+        }
+        LogManager.warn("No free port in " + first + "-" + (first + PORTS_PER_FORK - 1) + " for driver service, using any free port");
+        return PortProber.findFreePort();
+    }
+
+    private interface Startable
+    {
+        void start() throws IOException;
+    }
+
+    private static void start(Startable service, String name)
+    {
+        long start = System.nanoTime();
+        try
+        {
+            service.start();
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException("Could not start " + name, ex);
+        }
+        long elapsed = System.nanoTime() - start;
+        serviceStarts.increment();
+        serviceStartNanos.add(elapsed);
+        LogManager.info("Started " + name + " in " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+    }
+
+    private static RemoteWebDriver timeSession(Supplier<RemoteWebDriver> createSession)
+    {
+        long start = System.nanoTime();
+        RemoteWebDriver driver = createSession.get();
+        sessions.increment();
+        sessionNanos.add(System.nanoTime() - start);
+        return driver;
+    }
+}
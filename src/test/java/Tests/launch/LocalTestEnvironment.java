@@ -1,22 +1,31 @@
 package Tests.launch;
 
+import Tests.Reporting.MyRunner;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import org.openqa.selenium.WebDriverException;
-import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
+import utilities.FrameContext;
 
 public class LocalTestEnvironment
 {
-    private RemoteWebDriver sharedDriver = null;
+    // Number of warm browser sessions to keep; override with -DdriverPool.size=N
+    // Defaults to one session per parallel test worker
+    private static final int POOL_SIZE = Integer.getInteger("driverPool.size", MyRunner.WORKERS);
+
+    // Start the pool's sessions in the background as soon as the environment is created; disable with -DdriverPool.prewarm=false
+    private static final boolean PREWARM = Boolean.parseBoolean(System.getProperty("driverPool.prewarm", "true"));
+
+    private final DriverPool pool;
 
     /* If true, reuse the web driver between all tests, except failing tests.
-     * This increases the risk of a preceding test causing a following test to fail,
-     * but improves performance and prevents the new windows from stealing your focus and interrupting your work.
-     * For this to work, each test must correctly log out upon successful completion.
+     * This improves performance and prevents the new windows from stealing your focus and interrupting your work.
+     * Between tests, SessionReset clears the browser state (logging the user out) and checks that it worked;
+     * sessions it can't reset are quit. Only state on the site the test ended on can be cleared,
+     * so tests that leave state on other sites can still affect the following tests.
      */
     public boolean willReuseDriver()
     {
@@ -28,6 +37,7 @@ public class LocalTestEnvironment
     private LocalTestEnvironment(Supplier<RemoteWebDriver> constructDriver)
     {
         this.constructDriver = constructDriver;
+        this.pool = new DriverPool(this::newDriver, this::quitDriver, POOL_SIZE);
     }
 
     public static LocalTestEnvironment chrome()
@@ -37,7 +47,7 @@ public class LocalTestEnvironment
             ChromeOptions options = new ChromeOptions();
             options.addArguments("--start-maximized");
             options.addArguments("-browserSessionReuse");
-            return new ChromeDriver(options);
+            return ChromeProfileTemplate.isEnabled() ? ChromeProfileTemplate.chrome(options) : DriverServices.chrome(options);
         });
     }
 
@@ -47,54 +57,92 @@ public class LocalTestEnvironment
         {
             FirefoxOptions options = new FirefoxOptions();
             options.addArguments("-browserSessionReuse");
-            return new FirefoxDriver(options);
+            return DriverServices.firefox(options);
         });
     }
 
-    public void destroySharedResources()
+    /**
+     * Start browser sessions in the background, so they're ready by the time the first tests lease them
+     */
+    public void prewarm()
     {
-        if (sharedDriver != null)
+        if (PREWARM)
         {
-            if (sharedDriver.getCapabilities().getBrowserName().equals("firefox"))
-            {
-                // FirefoxDriver.quit() hangs if this causes an alert
-                // https://github.com/mozilla/geckodriver/issues/1151
-                try
-                {
-                    if (ExpectedConditions.alertIsPresent().apply(sharedDriver) == null)
-                    {
-                        sharedDriver.navigate().to("https://google.com");
-                    }
-                }
-                catch (WebDriverException ex)
-                {
-                }
-            }
-            sharedDriver.quit();
-            sharedDriver = null;
+            pool.prewarmAsync(POOL_SIZE);
         }
     }
 
+    public void destroySharedResources()
+    {
+        pool.report();
+        pool.close();
+        DriverServices.report();
+        ChromeProfileTemplate.report();
+        DriverServices.stop();
+    }
+
+    /**
+     * Get a browser session for one test. Return it with {@link #returnDriver} when the test is done.
+     */
+    public RemoteWebDriver leaseDriver()
+    {
+        return pool.lease();
+    }
+
+    /**
+     * Sessions that have grown too large or too old (see {@link SessionMonitor}) are quit here rather than reused,
+     * so they are never retired during a test.
+     */
+    public void returnDriver(RemoteWebDriver driver, boolean testFailed, String testName)
+    {
+        boolean retire = SessionMonitor.released(driver, testName);
+        pool.release(driver, testFailed || retire || !willReuseDriver());
+    }
+
+    public void reportDriverPool()
+    {
+        pool.report();
+        DriverServices.report();
+        ChromeProfileTemplate.report();
+    }
+
     private RemoteWebDriver newDriver()
     {
         RemoteWebDriver driver = constructDriver.get();
         driver.manage().window().maximize();
+        //async scripts (such as Wait.waiter's element observer) need longer than the default script timeout on some drivers
+        driver.manage().timeouts().setScriptTimeout(30, TimeUnit.SECONDS);
+        SessionMonitor.started(driver);
         return driver;
     }
 
-    private RemoteWebDriver getDriver()
+    private void quitDriver(RemoteWebDriver driver)
     {
-        if (willReuseDriver())
+        if (driver.getCapabilities().getBrowserName().equals("firefox"))
         {
-            if (sharedDriver == null)
+            // FirefoxDriver.quit() hangs if this causes an alert
+            // https://github.com/mozilla/geckodriver/issues/1151
+            // about:blank has no unload handlers to cause one, and doesn't load a whole site first
+            try
             {
-                sharedDriver = newDriver();
+                if (ExpectedConditions.alertIsPresent().apply(driver) == null)
+                {
+                    driver.navigate().to("about:blank");
+                }
             }
-            return sharedDriver;
+            catch (WebDriverException ex)
+            {
+            }
+        }
+        try
+        {
+            driver.quit();
         }
-        else
+        finally
         {
-            return newDriver();
+            SessionMonitor.quit(driver);
+            FrameContext.remove(driver);
+            ChromeProfileTemplate.deleteCopy(driver);
         }
     }
 }
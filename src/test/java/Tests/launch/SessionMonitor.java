@@ -0,0 +1,264 @@
+package Tests.launch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import utilities.LogManager;
+
+/**
+ * Measures the memory (PSS) and CPU time of each session's browser process tree, from /proc (so only on Linux),
+ * logs them for each test, and decides when a reused session has grown too large or too old and should be retired.
+ * PSS divides each shared page among the processes sharing it, so unlike RSS it can be summed across Chrome's processes
+ * without counting the shared browser code and memory once per process.
+ * The CPU time for a test is measured from the end of the previous test, so it includes resetting the session.
+ * The browser's main process is found from its profile directory (Chrome) or its reported process id (Firefox).
+ * Where the processes can't be found, only the age limit applies.
+ * Retirement only happens when a session is returned to the pool, so never during a test.
+ */
+class SessionMonitor
+{
+    // Retire sessions whose browser uses more memory than this; override with -DdriverPool.maxSessionPssMb=N (0 for no limit)
+    private static final long MAX_PSS_MB = Long.getLong("driverPool.maxSessionPssMb", 2048);
+    // Retire sessions older than this; override with -DdriverPool.maxSessionAgeMinutes=N (0 for no limit)
+    private static final Duration MAX_AGE = Duration.ofMinutes(Long.getLong("driverPool.maxSessionAgeMinutes", 60));
+    private static final Path PROC = Paths.get("/proc");
+    // USER_HZ, the unit of CPU times in /proc, is 100 on all mainstream Linux platforms
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+
+    private static final Map<RemoteWebDriver, Session> sessions = new ConcurrentHashMap<>();
+
+    private SessionMonitor()
+    {
+    }
+
+    /**
+     * Start monitoring a new session, from its CPU time so far
+     */
+    static void started(RemoteWebDriver driver)
+    {
+        Session session = new Session(findBrowserProcess(driver.getCapabilities()));
+        if (session.pid != null)
+        {
+            session.cpuTicksAtLastTest = usage(session.pid).cpuTicks;
+        }
+        sessions.put(driver, session);
+    }
+
+    /**
+     * Log the session's resource use for the test that just finished with it
+     *
+     * @return true if the session has crossed the memory or age limit, and should not be reused
+     */
+    static boolean released(RemoteWebDriver driver, String testName)
+    {
+        Session session = sessions.get(driver);
+        if (session == null)
+        {
+            return false;
+        }
+        Duration age = Duration.ofNanos(System.nanoTime() - session.startNanos);
+        long pssMb = 0;
+        if (session.pid != null)
+        {
+            //one scan of /proc per test; its CPU time is also the starting point for the next test
+            Usage usage = usage(session.pid);
+            pssMb = usage.pssKb / 1024;
+            LogManager.info(String.format("Browser resources after %s: %d MB PSS in %d processes, %d ms CPU during the test; session age %d s",
+                testName, pssMb, usage.processes, Math.max(0, usage.cpuTicks - session.cpuTicksAtLastTest) * 1000 / CLOCK_TICKS_PER_SECOND, age.getSeconds()));
+            session.cpuTicksAtLastTest = usage.cpuTicks;
+        }
+        if (MAX_PSS_MB > 0 && pssMb > MAX_PSS_MB)
+        {
+            LogManager.info("Retiring browser session using " + pssMb + " MB, over the " + MAX_PSS_MB + " MB limit");
+            return true;
+        }
+        if (!MAX_AGE.isZero() && age.compareTo(MAX_AGE) > 0)
+        {
+            LogManager.info("Retiring browser session after " + age.toMinutes() + " minutes, over the " + MAX_AGE.toMinutes() + " minute limit");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stop monitoring a session that has quit
+     */
+    static void quit(RemoteWebDriver driver)
+    {
+        sessions.remove(driver);
+    }
+
+    /**
+     * @return the pid of the browser's main process, or null if it can't be found
+     */
+    @SuppressWarnings("unchecked")
+    private static Long findBrowserProcess(Capabilities capabilities)
+    {
+        if (!Files.isDirectory(PROC))
+        {
+            return null;
+        }
+        Object firefoxPid = capabilities.getCapability("moz:processID");
+        if (firefoxPid instanceof Number)
+        {
+            return ((Number) firefoxPid).longValue();
+        }
+        Object chrome = capabilities.getCapability("chrome");
+        if (!(chrome instanceof Map) || ((Map<String, Object>) chrome).get("userDataDir") == null)
+        {
+            LogManager.debug("Can't find the browser process to monitor for " + capabilities.getBrowserName());
+            return null;
+        }
+        //Chrome's helper processes (renderers, GPU, etc.) have a --type; the main process doesn't
+        String profile = "--user-data-dir=" + ((Map<String, Object>) chrome).get("userDataDir");
+        for (Long pid : pids())
+        {
+            List<String> arguments = commandLine(pid);
+            if (arguments.contains(profile) && arguments.stream().noneMatch(argument -> argument.startsWith("--type=")))
+            {
+                return pid;
+            }
+        }
+        LogManager.debug("Can't find the Chrome process using " + profile);
+        return null;
+    }
+
+    /**
+     * Total PSS and CPU time of the process and its descendants
+     */
+    private static Usage usage(long root)
+    {
+        Map<Long, List<Long>> children = new HashMap<>();
+        Map<Long, String[]> stats = new HashMap<>();
+        for (Long pid : pids())
+        {
+            String[] stat = stat(pid);
+            if (stat != null)
+            {
+                stats.put(pid, stat);
+                //fields after the command name: state, ppid, ...
+                children.computeIfAbsent(Long.parseLong(stat[1]), parent -> new ArrayList<>()).add(pid);
+            }
+        }
+        Usage usage = new Usage();
+        Deque<Long> tree = new ArrayDeque<>();
+        tree.add(root);
+        while (!tree.isEmpty())
+        {
+            Long pid = tree.poll();
+            String[] stat = stats.get(pid);
+            if (stat == null)
+            {
+                continue;
+            }
+            usage.processes++;
+            //utime and stime are fields 14 and 15 of /proc/pid/stat, so 11 and 12 after the command name
+            usage.cpuTicks += Long.parseLong(stat[11]) + Long.parseLong(stat[12]);
+            usage.pssKb += pssKb(pid);
+            tree.addAll(children.getOrDefault(pid, new ArrayList<>()));
+        }
+        return usage;
+    }
+
+    private static List<Long> pids()
+    {
+        List<Long> pids = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(PROC, entry -> entry.getFileName().toString().matches("\\d+")))
+        {
+            entries.forEach(entry -> pids.add(Long.parseLong(entry.getFileName().toString())));
+        }
+        catch (IOException ex)
+        {
+            LogManager.debug("Can't list processes: " + ex.getMessage());
+        }
+        return pids;
+    }
+
+    private static List<String> commandLine(long pid)
+    {
+        List<String> arguments = new ArrayList<>();
+        try
+        {
+            for (String argument : new String(Files.readAllBytes(PROC.resolve(pid + "/cmdline")), StandardCharsets.UTF_8).split("\0"))
+            {
+                arguments.add(argument);
+            }
+        }
+        catch (IOException ex)
+        {
+            //the process exited, or isn't ours
+        }
+        return arguments;
+    }
+
+    /**
+     * @return the fields of /proc/pid/stat after the command name (which may contain spaces), or null if the process exited
+     */
+    private static String[] stat(long pid)
+    {
+        try
+        {
+            String stat = new String(Files.readAllBytes(PROC.resolve(pid + "/stat")), StandardCharsets.UTF_8);
+            return stat.substring(stat.lastIndexOf(')') + 2).trim().split(" ");
+        }
+        catch (IOException ex)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * From smaps_rollup, or on kernels before 4.14, the sum over smaps (slower, one line per mapping)
+     */
+    private static long pssKb(long pid)
+    {
+        Path rollup = PROC.resolve(pid + "/smaps_rollup");
+        Path file = Files.exists(rollup) ? rollup : PROC.resolve(pid + "/smaps");
+        long pss = 0;
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8))
+        {
+            pss = lines.filter(line -> line.startsWith("Pss:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("[^0-9]", "")))
+                .sum();
+        }
+        catch (IOException | UncheckedIOException ex)
+        {
+            //the process exited
+        }
+        return pss;
+    }
+
+    private static class Session
+    {
+        private final Long pid;
+        private final long startNanos = System.nanoTime();
+        private volatile long cpuTicksAtLastTest = 0;
+
+        Session(Long pid)
+        {
+            this.pid = pid;
+        }
+    }
+
+    private static class Usage
+    {
+        private int processes = 0;
+        private long cpuTicks = 0;
+        private long pssKb = 0;
+    }
+}
@@ -0,0 +1,162 @@
+package Tests.launch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import utilities.FrameContext;
+import utilities.LogManager;
+
+/**
+ * Returns a browser session to a blank state between tests, so it can be reused instead of starting a new browser.
+ * Dismisses any alert, closes all windows but one, clears the current site's cookies, localStorage, sessionStorage, IndexedDB databases,
+ * service workers, and caches, checks that they're gone, and goes to about:blank.
+ * This takes about seven round trips (alert, window handles, window switch, storage script, delete cookies, get cookies, navigate),
+ * plus two per extra window.
+ * Browsers only let a page clear its own site's storage, and WebDriver only exposes the current site's cookies,
+ * so state left on other sites the test visited is not cleared.
+ */
+class SessionReset
+{
+    private static final String CLEAR_STORAGE_SCRIPT = "var done = arguments[arguments.length - 1];"
+        + "if (!/^https?:$/.test(location.protocol)) { done({}); return; }"
+        + "localStorage.clear();"
+        + "sessionStorage.clear();"
+        + "var blocked = [], tasks = [];"
+        + "function all(promise, each) { return promise.then(function (items) { return Promise.all(items.map(each)); }); }"
+        + "if (window.indexedDB && indexedDB.databases) {"
+        + "  tasks.push(all(indexedDB.databases(), function (database) {"
+        + "    return new Promise(function (resolve) {"
+        + "      var request = indexedDB.deleteDatabase(database.name);"
+        + "      request.onsuccess = request.onerror = resolve;"
+        //the page still has the database open; it will be deleted as soon as the page unloads
+        + "      request.onblocked = function () { blocked.push(database.name); resolve(); };"
+        + "    });"
+        + "  }));"
+        + "}"
+        + "if (navigator.serviceWorker) {"
+        + "  tasks.push(all(navigator.serviceWorker.getRegistrations(), function (registration) { return registration.unregister(); }));"
+        + "}"
+        + "if (window.caches) {"
+        + "  tasks.push(all(caches.keys(), function (key) { return caches.delete(key); }));"
+        + "}"
+        + "function count(promise) { return promise.then(function (items) { return items.length; }); }"
+        + "function verify() {"
+        + "  Promise.all(["
+        + "    window.indexedDB && indexedDB.databases ? indexedDB.databases().then(function (databases) {"
+        + "      return databases.filter(function (database) { return blocked.indexOf(database.name) === -1; }).length;"
+        + "    }) : 0,"
+        + "    navigator.serviceWorker ? count(navigator.serviceWorker.getRegistrations()) : 0,"
+        + "    window.caches ? count(caches.keys()) : 0"
+        + "  ]).then(function (counts) {"
+        + "    done({localStorage: localStorage.length, sessionStorage: sessionStorage.length, indexedDB: counts[0], serviceWorkers: counts[1], caches: counts[2]});"
+        + "  }, function (error) { done({error: String(error)}); });"
+        + "}"
+        + "Promise.all(tasks).then(verify, verify);";
+
+    private static final LongAdder resets = new LongAdder();
+    private static final LongAdder failures = new LongAdder();
+    private static final LongAdder resetNanos = new LongAdder();
+
+    private SessionReset()
+    {
+    }
+
+    /**
+     * @return false if the session could not be reset, or is unresponsive, and should not be reused
+     */
+    static boolean reset(RemoteWebDriver driver)
+    {
+        long start = System.nanoTime();
+        boolean reset = false;
+        try
+        {
+            dismissAlert(driver);
+            closeExtraWindows(driver);
+            reset = clearStorage(driver) && clearCookies(driver);
+            driver.navigate().to("about:blank");
+            FrameContext.of(driver).navigatedTopLevel();
+            return reset;
+        }
+        catch (WebDriverException ex)
+        {
+            LogManager.debug("Browser session reset failed: " + ex.getMessage().split("\n", 2)[0]);
+            reset = false;
+            return false;
+        }
+        finally
+        {
+            resets.increment();
+            resetNanos.add(System.nanoTime() - start);
+            if (!reset)
+            {
+                failures.increment();
+            }
+        }
+    }
+
+    static String summary()
+    {
+        long count = resets.sum();
+        return String.format("Session resets: %d, %d failed, avg %d ms", count, failures.sum(),
+            count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(resetNanos.sum() / count));
+    }
+
+    private static void dismissAlert(RemoteWebDriver driver)
+    {
+        try
+        {
+            driver.switchTo().alert().dismiss();
+        }
+        catch (NoAlertPresentException ex)
+        {
+            //the usual case
+        }
+    }
+
+    /**
+     * Leaves the driver at the top of the first window, so the storage and cookies cleared are the site's, not a frame's
+     */
+    private static void closeExtraWindows(RemoteWebDriver driver)
+    {
+        FrameContext frames = FrameContext.of(driver);
+        List<String> handles = new ArrayList<>(driver.getWindowHandles());
+        for (String handle : handles.subList(1, handles.size()))
+        {
+            frames.window(handle);
+            driver.close();
+        }
+        //the test may have left the driver somewhere the tracker doesn't know about, so switch rather than trust it
+        frames.forget();
+        frames.window(handles.get(0));
+        //only makes a call where switching windows doesn't reset the frame (Firefox)
+        frames.defaultContent();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean clearStorage(RemoteWebDriver driver)
+    {
+        Map<String, Object> remaining = (Map<String, Object>) driver.executeAsyncScript(CLEAR_STORAGE_SCRIPT);
+        boolean cleared = remaining.values().stream().allMatch(count -> count instanceof Number && ((Number) count).longValue() == 0);
+        if (!cleared)
+        {
+            LogManager.debug("Browser storage was not cleared: " + remaining);
+        }
+        return cleared;
+    }
+
+    private static boolean clearCookies(RemoteWebDriver driver)
+    {
+        driver.manage().deleteAllCookies();
+        boolean cleared = driver.manage().getCookies().isEmpty();
+        if (!cleared)
+        {
+            LogManager.debug("Cookies were not cleared: " + driver.manage().getCookies());
+        }
+        return cleared;
+    }
+}